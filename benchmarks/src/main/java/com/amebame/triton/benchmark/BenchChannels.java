@@ -0,0 +1,75 @@
+package com.amebame.triton.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+
+/**
+ * Stub channels for benchmarks which do not touch the network.
+ * Writes are discarded and completed immediately.
+ */
+public class BenchChannels {
+	
+	private static final AtomicInteger ID = new AtomicInteger();
+	
+	private BenchChannels() {
+	}
+	
+	/**
+	 * Create the open channel which discards writes
+	 * @return
+	 */
+	public static Channel stub() {
+		return (Channel) Proxy.newProxyInstance(
+				Channel.class.getClassLoader(),
+				new Class<?>[] { Channel.class },
+				new StubHandler(ID.incrementAndGet()));
+	}
+	
+	private static class StubHandler implements InvocationHandler {
+		
+		private final Integer id;
+		
+		private final ChannelPipeline pipeline = Channels.pipeline();
+		
+		private StubHandler(int id) {
+			this.id = id;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "getId":
+				return id;
+			case "isOpen":
+			case "isBound":
+			case "isConnected":
+			case "isWritable":
+			case "isReadable":
+				return true;
+			case "getPipeline":
+				return pipeline;
+			case "write":
+			case "close":
+			case "disconnect":
+				return Channels.succeededFuture((Channel) proxy);
+			case "hashCode":
+				return id.hashCode();
+			case "equals":
+				return proxy == args[0];
+			case "compareTo":
+				return id.compareTo(((Channel) args[0]).getId());
+			case "toString":
+				return "stub-channel-" + id;
+			default:
+				return null;
+			}
+		}
+	}
+
+}
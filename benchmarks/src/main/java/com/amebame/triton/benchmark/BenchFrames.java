@@ -0,0 +1,56 @@
+package com.amebame.triton.benchmark;
+
+import java.nio.charset.Charset;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+import com.amebame.triton.server.protocol.TritonFrame;
+
+/**
+ * Helpers to build request frames for benchmarks
+ */
+public class BenchFrames {
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private BenchFrames() {
+	}
+	
+	/**
+	 * Build the command frame with the envelope
+	 * @param callId
+	 * @param name
+	 * @param body JSON text of the body
+	 * @return
+	 */
+	public static ChannelBuffer command(int callId, String name, String body) {
+		byte[] bytes = ("{\"name\":\"" + name + "\",\"body\":" + body + "}").getBytes(UTF8);
+		ChannelBuffer buffer = ChannelBuffers.buffer(TritonFrame.HEADER_SIZE + bytes.length);
+		buffer.writeShort(TritonFrame.COMMAND);
+		buffer.writeInt(bytes.length);
+		buffer.writeInt(callId);
+		buffer.writeZero(TritonFrame.RESERVED_SIZE);
+		buffer.writeBytes(bytes);
+		return buffer;
+	}
+	
+	/**
+	 * Build the JSON array of the keys
+	 * @param count
+	 * @return
+	 */
+	public static String keys(int count) {
+		StringBuilder builder = new StringBuilder();
+		builder.append('[');
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("\"key-").append(i).append('"');
+		}
+		builder.append(']');
+		return builder.toString();
+	}
+
+}
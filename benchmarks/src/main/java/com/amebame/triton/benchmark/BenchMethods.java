@@ -0,0 +1,60 @@
+package com.amebame.triton.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amebame.triton.server.TritonMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Stub server methods which do not call any backend
+ */
+public class BenchMethods {
+	
+	public BenchMethods() {
+	}
+	
+	@TritonMethod(value="bench.echo", inline=true)
+	public JsonNode echo(JsonNode node) {
+		return node;
+	}
+	
+	@TritonMethod(value="bench.get", inline=true)
+	public Map<String, Object> get(BenchGet get) {
+		Map<String, Object> map = new HashMap<>();
+		for (String key : get.getKeys()) {
+			map.put(key, get.getCluster() + ":" + key);
+		}
+		return map;
+	}
+	
+	/**
+	 * Body of bench.get
+	 */
+	public static class BenchGet {
+		
+		private String cluster;
+		
+		private String[] keys;
+		
+		public BenchGet() {
+		}
+		
+		public String getCluster() {
+			return cluster;
+		}
+		
+		public void setCluster(String cluster) {
+			this.cluster = cluster;
+		}
+		
+		public String[] getKeys() {
+			return keys;
+		}
+		
+		public void setKeys(String[] keys) {
+			this.keys = keys;
+		}
+	}
+
+}
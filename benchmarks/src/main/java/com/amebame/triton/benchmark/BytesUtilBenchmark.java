@@ -0,0 +1,63 @@
+package com.amebame.triton.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amebame.triton.server.util.BytesUtil;
+
+/**
+ * Computing the next and previous keys of the range
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BytesUtilBenchmark {
+	
+	@Param({"8", "64"})
+	private int length;
+	
+	private byte[] bytes;
+	
+	private ByteBuffer buffer;
+	
+	@Setup
+	public void setup() {
+		bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) (i * 7);
+		}
+		// carry over the trailing bytes
+		bytes[length - 1] = (byte) 0xff;
+		buffer = ByteBuffer.wrap(bytes);
+	}
+	
+	@Benchmark
+	public byte[] next() {
+		return BytesUtil.next(bytes);
+	}
+	
+	@Benchmark
+	public byte[] previous() {
+		return BytesUtil.previous(bytes);
+	}
+	
+	@Benchmark
+	public ByteBuffer nextBuffer() {
+		return BytesUtil.next(buffer.duplicate());
+	}
+	
+	@Benchmark
+	public ByteBuffer previousBuffer() {
+		return BytesUtil.previous(buffer.duplicate());
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.amebame.triton.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.thrift.Column;
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amebame.triton.service.cassandra.CassandraConverter;
+import com.amebame.triton.server.util.ServerJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.netflix.astyanax.Serializer;
+import com.netflix.astyanax.model.ColumnList;
+import com.netflix.astyanax.serializers.BytesArraySerializer;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.serializers.StringSerializer;
+import com.netflix.astyanax.thrift.model.ThriftColumnOrSuperColumnListImpl;
+
+/**
+ * Conversions between JSON and cassandra values by serializer types
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CassandraConverterBenchmark {
+	
+	@Param({"string", "long", "bytes"})
+	private String type;
+	
+	@Param({"100"})
+	private int columns;
+	
+	private Serializer<?> serializer;
+	
+	private String text;
+	
+	private JsonNode value;
+	
+	private byte[] stored;
+	
+	private ColumnList<String> columnList;
+	
+	@Setup
+	public void setup() {
+		switch (type) {
+		case "long":
+			serializer = LongSerializer.get();
+			text = "1234567890";
+			value = ServerJson.mapper().valueToTree(1234567890L);
+			break;
+		case "bytes":
+			serializer = BytesArraySerializer.get();
+			text = "{\"id\":1,\"name\":\"triton\",\"tags\":[\"a\",\"b\",\"c\"]}";
+			value = ServerJson.tree(text.getBytes());
+			break;
+		default:
+			serializer = StringSerializer.get();
+			text = "triton";
+			value = ServerJson.mapper().valueToTree("triton");
+			break;
+		}
+		ByteBuffer buffer = CassandraConverter.toValueBuffer(value, serializer);
+		stored = new byte[buffer.remaining()];
+		buffer.get(stored);
+		List<ColumnOrSuperColumn> list = new ArrayList<>(columns);
+		for (int i = 0; i < columns; i++) {
+			Column column = new Column(StringSerializer.get().toByteBuffer("column-" + i));
+			column.setValue(stored);
+			column.setTimestamp(System.currentTimeMillis());
+			list.add(new ColumnOrSuperColumn().setColumn(column));
+		}
+		columnList = new ThriftColumnOrSuperColumnListImpl<>(list, StringSerializer.get());
+	}
+	
+	@Benchmark
+	public Object toObject() {
+		return CassandraConverter.toObject(text, serializer);
+	}
+	
+	@Benchmark
+	public ByteBuffer toValueBuffer() {
+		return CassandraConverter.toValueBuffer(value, serializer);
+	}
+	
+	@Benchmark
+	public JsonNode toValueNode() {
+		return CassandraConverter.toValueNode(stored, serializer);
+	}
+	
+	@Benchmark
+	public Map<String, JsonNode> toCassandraColumnMap() {
+		return CassandraConverter.toCassandraColumnMap(columnList, StringSerializer.get(), serializer);
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.amebame.triton.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.TritonServerHandler;
+import com.amebame.triton.server.TritonServerMethod;
+import com.amebame.triton.server.TritonServerRequest;
+import com.amebame.triton.server.protocol.TritonServerDecoder;
+import com.amebame.triton.server.protocol.TritonServerEncoder;
+import com.amebame.triton.server.protocol.TritonServerFrame;
+import com.amebame.triton.server.stats.TritonSlowlog;
+import com.amebame.triton.service.TritonScheduler;
+
+/**
+ * Dispatch path of {@link TritonServerHandler} with stub methods.
+ * Methods are inline, so the whole path runs on the benchmark thread:
+ * decoding the frame, resolving the method, binding the body,
+ * invoking the method and encoding the reply.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+	
+	@Param({"1", "20"})
+	private int keys;
+	
+	private TritonServerContext context;
+	
+	private DecoderEmbedder<Object> pipeline;
+	
+	private ChannelBuffer getRequest;
+	
+	private ChannelBuffer echoRequest;
+	
+	private TritonServerMethod method;
+	
+	private TritonServerRequest request;
+	
+	private Object body;
+	
+	@Setup
+	public void setup() throws Exception {
+		TritonServerConfiguration config = new TritonServerConfiguration();
+		config.getNetty().setInlineLimit(Integer.MAX_VALUE);
+		TritonScheduler scheduler = new TritonScheduler();
+		context = new TritonServerContext(config, scheduler);
+		context.addServerMethod(new BenchMethods());
+		TritonServerHandler handler = new TritonServerHandler(context, config, new TritonSlowlog(config), scheduler);
+		pipeline = new DecoderEmbedder<>(new TritonServerEncoder(), new TritonServerDecoder(), handler);
+		String getBody = "{\"cluster\":\"default\",\"keys\":" + BenchFrames.keys(keys) + "}";
+		getRequest = BenchFrames.command(1, "bench.get", getBody);
+		echoRequest = BenchFrames.command(1, "bench.echo", getBody);
+		// request bound in advance to measure invocation only
+		DecoderEmbedder<TritonServerFrame> decoder = new DecoderEmbedder<>(new TritonServerDecoder());
+		decoder.offer(getRequest.duplicate());
+		request = new TritonServerRequest(BenchChannels.stub(), decoder.poll());
+		request.resolve(context);
+		body = request.bind();
+		method = request.getMethod();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.shutdown();
+	}
+	
+	@Benchmark
+	public Object dispatchObject() {
+		pipeline.offer(getRequest.duplicate());
+		return pipeline.poll();
+	}
+	
+	@Benchmark
+	public Object dispatchTree() {
+		pipeline.offer(echoRequest.duplicate());
+		return pipeline.poll();
+	}
+	
+	@Benchmark
+	public Object invoke() {
+		return method.invoke(request, body);
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.amebame.triton.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amebame.triton.server.protocol.TritonFrame;
+import com.amebame.triton.server.protocol.TritonServerDecoder;
+import com.amebame.triton.server.protocol.TritonServerEncoder;
+import com.amebame.triton.server.protocol.TritonServerFrame;
+import com.amebame.triton.server.protocol.TritonServerReply;
+import com.amebame.triton.server.util.ServerJson;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Encoding replies and decoding requests of the framed protocol
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameBenchmark {
+	
+	@Param({"1", "100", "1000"})
+	private int keys;
+	
+	@Param({"0", "1"})
+	private int format;
+	
+	private EncoderEmbedder<ChannelBuffer> encoder;
+	
+	private DecoderEmbedder<TritonServerFrame> decoder;
+	
+	private TritonServerReply reply;
+	
+	private ChannelBuffer request;
+	
+	@Setup
+	public void setup() {
+		encoder = new EncoderEmbedder<>(new TritonServerEncoder());
+		decoder = new DecoderEmbedder<>(new TritonServerDecoder());
+		Map<String, Object> body = new HashMap<>();
+		for (int i = 0; i < keys; i++) {
+			body.put("key-" + i, i * 31L);
+		}
+		reply = new TritonServerReply(TritonFrame.REPLY, 1, format, body);
+		request = BenchFrames.command(1, "memcached.get", "{\"cluster\":\"default\",\"keys\":" + BenchFrames.keys(keys) + "}");
+	}
+	
+	@Benchmark
+	public ChannelBuffer encode() {
+		encoder.offer(reply);
+		return encoder.poll();
+	}
+	
+	@Benchmark
+	public TritonServerFrame decode() {
+		decoder.offer(request.duplicate());
+		return decoder.poll();
+	}
+	
+	@Benchmark
+	public JsonNode decodeAndParse() throws Exception {
+		decoder.offer(request.duplicate());
+		TritonServerFrame frame = decoder.poll();
+		return frame.createParser(ServerJson.factory()).readValueAsTree();
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.amebame.triton.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.channel.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.amebame.triton.service.lock.LockManager;
+import com.amebame.triton.service.lock.LockOwner;
+
+/**
+ * Lock and unlock of {@link LockManager} under contention.
+ * Fewer keys make more owners wait for the same lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LockManagerBenchmark {
+	
+	@Param({"1", "16", "1024"})
+	private int keyCount;
+	
+	private LockManager manager;
+	
+	private String[] keys;
+	
+	@Setup
+	public void setup() {
+		manager = new LockManager();
+		keys = new String[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			keys[i] = "lock-" + i;
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class Client {
+		private Channel channel = BenchChannels.stub();
+		private int callId;
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public void lockUnlock(Client client) {
+		String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+		LockOwner owner = new LockOwner(client.channel, ++client.callId);
+		manager.lock(owner, key, 1000L);
+		manager.unlock(owner, key);
+	}
+
+}
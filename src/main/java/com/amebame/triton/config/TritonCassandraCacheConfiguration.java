@@ -0,0 +1,43 @@
+package com.amebame.triton.config;
+
+/**
+ * Configuration for the result cache of the column family.
+ */
+public class TritonCassandraCacheConfiguration {
+	
+	// Maximum bytes of cached results (default 16MB)
+	private long maxBytes = 16L * 1024L * 1024L;
+	
+	// Maximum slices cached for each row
+	private int maxSlices = 16;
+	
+	// Results expire after this millis (default 10sec)
+	private long ttl = 10000L;
+	
+	public TritonCassandraCacheConfiguration() {
+	}
+	
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+	
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+	
+	public int getMaxSlices() {
+		return maxSlices;
+	}
+	
+	public void setMaxSlices(int maxSlices) {
+		this.maxSlices = maxSlices;
+	}
+	
+	public long getTtl() {
+		return ttl;
+	}
+	
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+}
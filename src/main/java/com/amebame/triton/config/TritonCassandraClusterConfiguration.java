@@ -13,11 +13,16 @@ import com.netflix.astyanax.model.ConsistencyLevel;
  */
 public class TritonCassandraClusterConfiguration {
 	
+	// threads to execute asynchronous operations
+	private static final int DEFAULT_ASYNC_THREADS = 32;
+	
 	private String name;
 	
 	private AstyanaxConfigurationImpl astyanaxConfig;
 	
 	private ConnectionPoolConfigurationImpl poolConfig;
+	
+	private int asyncThreads = DEFAULT_ASYNC_THREADS;
 
 	public TritonCassandraClusterConfiguration() {
 		astyanaxConfig = new AstyanaxConfigurationImpl()
@@ -69,6 +74,21 @@ public class TritonCassandraClusterConfiguration {
 		return this;
 	}
 	
+	/**
+	 * Threads to execute asynchronous operations.
+	 * Each thread holds the connection while the operation is
+	 * executing, so this should be large enough for the pool.
+	 * @param threads
+	 */
+	public TritonCassandraClusterConfiguration setAsyncThreads(int threads) {
+		this.asyncThreads = threads;
+		return this;
+	}
+	
+	public int getAsyncThreads() {
+		return asyncThreads;
+	}
+	
 	/**
 	 * Set auto discovery
 	 */
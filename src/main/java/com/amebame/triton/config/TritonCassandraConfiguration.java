@@ -11,8 +11,21 @@ public class TritonCassandraConfiguration {
 	// Cluster Map
 	private Map<String, TritonCassandraClusterConfiguration> clusters;
 	
+	// Rows fetched at once by streams and cursors
+	private int pageSize = 100;
+	
+	// Cursors
+	private TritonCassandraCursorConfiguration cursor = new TritonCassandraCursorConfiguration();
+	
+	// Parallel scans
+	private TritonCassandraScanConfiguration scan = new TritonCassandraScanConfiguration();
+	
+	// Result caches by "cluster.keyspace.columnFamily"
+	private Map<String, TritonCassandraCacheConfiguration> caches;
+	
 	public TritonCassandraConfiguration() {
 		this.clusters = new HashMap<String, TritonCassandraClusterConfiguration>();
+		this.caches = new HashMap<String, TritonCassandraCacheConfiguration>();
 	}
 	
 	/**
@@ -53,5 +66,76 @@ public class TritonCassandraConfiguration {
 		return this;
 	}
 	
+	/**
+	 * Get number of rows fetched at once by streams and cursors
+	 * @return
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+	
+	/**
+	 * Set number of rows fetched at once by streams and cursors
+	 * @param pageSize
+	 * @return
+	 */
+	public TritonCassandraConfiguration setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+		return this;
+	}
+	
+	/**
+	 * Get cursor configuration
+	 * @return
+	 */
+	public TritonCassandraCursorConfiguration getCursor() {
+		return cursor;
+	}
+	
+	/**
+	 * Set cursor configuration
+	 * @param cursor
+	 * @return
+	 */
+	public TritonCassandraConfiguration setCursor(TritonCassandraCursorConfiguration cursor) {
+		this.cursor = cursor;
+		return this;
+	}
+	
+	/**
+	 * Get parallel scan configuration
+	 * @return
+	 */
+	public TritonCassandraScanConfiguration getScan() {
+		return scan;
+	}
+	
+	/**
+	 * Set parallel scan configuration
+	 * @param scan
+	 * @return
+	 */
+	public TritonCassandraConfiguration setScan(TritonCassandraScanConfiguration scan) {
+		this.scan = scan;
+		return this;
+	}
+	
+	/**
+	 * Get result cache configurations by "cluster.keyspace.columnFamily"
+	 * @return
+	 */
+	public Map<String, TritonCassandraCacheConfiguration> getCaches() {
+		return caches;
+	}
+	
+	/**
+	 * Set result cache configurations by "cluster.keyspace.columnFamily"
+	 * @param caches
+	 * @return
+	 */
+	public TritonCassandraConfiguration setCaches(Map<String, TritonCassandraCacheConfiguration> caches) {
+		this.caches = caches;
+		return this;
+	}
 
 }
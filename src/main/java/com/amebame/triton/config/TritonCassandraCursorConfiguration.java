@@ -0,0 +1,43 @@
+package com.amebame.triton.config;
+
+/**
+ * Configuration for cassandra cursors.
+ */
+public class TritonCassandraCursorConfiguration {
+	
+	// Close cursors idle for this millis (default 60sec)
+	private long timeout = 60000L;
+	
+	// Maximum open cursors
+	private int maxCursors = 1000;
+	
+	// Maximum bytes of prefetched pages of all cursors (default 64MB)
+	private long maxBytes = 64L * 1024L * 1024L;
+	
+	public TritonCassandraCursorConfiguration() {
+	}
+	
+	public long getTimeout() {
+		return timeout;
+	}
+	
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+	
+	public int getMaxCursors() {
+		return maxCursors;
+	}
+	
+	public void setMaxCursors(int maxCursors) {
+		this.maxCursors = maxCursors;
+	}
+	
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+	
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+}
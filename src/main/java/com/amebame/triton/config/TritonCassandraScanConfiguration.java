@@ -0,0 +1,43 @@
+package com.amebame.triton.config;
+
+/**
+ * Configuration for parallel column family scans.
+ */
+public class TritonCassandraScanConfiguration {
+	
+	// Concurrent sub scans per cassandra node. Also the maximum requested by the client
+	private int parallelism = 2;
+	
+	// Threads shared by all scans
+	private int threads = 16;
+	
+	// Directory to write scan files. Scans to files are disabled if not set
+	private String directory;
+	
+	public TritonCassandraScanConfiguration() {
+	}
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+	
+	public int getThreads() {
+		return threads;
+	}
+	
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+	
+	public String getDirectory() {
+		return directory;
+	}
+	
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+}
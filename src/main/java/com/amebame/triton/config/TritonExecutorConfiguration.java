@@ -0,0 +1,111 @@
+package com.amebame.triton.config;
+
+/**
+ * Configuration for the worker executor.
+ */
+public class TritonExecutorConfiguration {
+	
+	// Core threads
+	private int core = 10;
+	
+	// Maximum threads which are started when the queue is full
+	private int max = 20;
+	
+	// Capacity of the queue
+	private int queue = 10000;
+	
+	// Keep alive time for idle threads over core (default 60sec)
+	private long keepAlive = 60000L;
+	
+	// Policy when the queue is full
+	private TritonRejectionPolicy rejection = TritonRejectionPolicy.reply;
+	
+	// Execute requests of the connection in order. Executors follow the worker if not set
+	private Boolean ordered;
+	
+	// Maximum pending requests per connection in ordered mode
+	private int laneCapacity = 1000;
+	
+	// Maximum requests executed at once per connection in ordered mode
+	private int laneBatch = 16;
+
+	public TritonExecutorConfiguration() {
+	}
+	
+	public TritonExecutorConfiguration(int core, int max) {
+		this.core = core;
+		this.max = max;
+	}
+
+	public int getCore() {
+		return core;
+	}
+
+	public void setCore(int core) {
+		this.core = core;
+	}
+
+	public int getMax() {
+		return Math.max(core, max);
+	}
+
+	public void setMax(int max) {
+		this.max = max;
+	}
+
+	public int getQueue() {
+		return queue;
+	}
+
+	public void setQueue(int queue) {
+		this.queue = queue;
+	}
+	
+	public long getKeepAlive() {
+		return keepAlive;
+	}
+	
+	public void setKeepAlive(long keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	public TritonRejectionPolicy getRejection() {
+		return rejection;
+	}
+
+	public void setRejection(TritonRejectionPolicy rejection) {
+		this.rejection = rejection;
+	}
+	
+	public boolean isOrdered() {
+		return ordered != null && ordered;
+	}
+	
+	/**
+	 * Check ordered is configured explicitly
+	 * @return
+	 */
+	public boolean hasOrdered() {
+		return ordered != null;
+	}
+	
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+	
+	public int getLaneCapacity() {
+		return laneCapacity;
+	}
+	
+	public void setLaneCapacity(int laneCapacity) {
+		this.laneCapacity = laneCapacity;
+	}
+	
+	public int getLaneBatch() {
+		return laneBatch;
+	}
+	
+	public void setLaneBatch(int laneBatch) {
+		this.laneBatch = laneBatch;
+	}
+}
@@ -9,6 +9,9 @@ import java.util.Map;
 public class TritonMemcachedConfiguration {
 	
 	private Map<String, TritonMemcachedClusterConfiguration> clusters;
+	
+	// store values with Smile instead of JSON text
+	private boolean smile = false;
 
 	public TritonMemcachedConfiguration() {
 		clusters = new HashMap<>();
@@ -30,4 +33,17 @@ public class TritonMemcachedConfiguration {
 		this.clusters = clusters;
 	}
 
+	
+	/**
+	 * Check values are stored with Smile
+	 * @return
+	 */
+	public boolean isSmile() {
+		return smile;
+	}
+	
+	public void setSmile(boolean smile) {
+		this.smile = smile;
+	}
+
 }
@@ -10,6 +10,27 @@ public class TritonNettyConfiguration {
 	
 	// Connect timeout for client (default 5sec)
 	private int connectTimeout = 5000;
+	
+	// Time limit of inline methods on the I/O thread (default 1ms)
+	private int inlineLimit = 1;
+	
+	// Allocate channel buffers from preallocated direct memory
+	private boolean directBuffer = false;
+	
+	// Coalesce replies of pipelined requests
+	private boolean aggregate = true;
+	
+	// Flush coalesced replies over this size (default 64KB)
+	private int flushBytes = 65536;
+	
+	// Flush coalesced replies after this delay (default 1ms)
+	private int flushDelay = 1;
+	
+	// Compress replies over this size if the client accepts (default 16KB, 0 to disable)
+	private int compressThreshold = 16384;
+	
+	// Limit of request bodies after decompression (default 64MB)
+	private int maxBodySize = 64 * 1024 * 1024;
 
 	public TritonNettyConfiguration() {
 	}
@@ -37,4 +58,60 @@ public class TritonNettyConfiguration {
 	public void setConnectTimeout(int connectTimeout) {
 		this.connectTimeout = connectTimeout;
 	}
+	
+	public int getInlineLimit() {
+		return inlineLimit;
+	}
+	
+	public void setInlineLimit(int inlineLimit) {
+		this.inlineLimit = inlineLimit;
+	}
+	
+	public boolean isAggregate() {
+		return aggregate;
+	}
+	
+	public void setAggregate(boolean aggregate) {
+		this.aggregate = aggregate;
+	}
+	
+	public int getFlushBytes() {
+		return flushBytes;
+	}
+	
+	public void setFlushBytes(int flushBytes) {
+		this.flushBytes = flushBytes;
+	}
+	
+	public int getFlushDelay() {
+		return flushDelay;
+	}
+	
+	public void setFlushDelay(int flushDelay) {
+		this.flushDelay = flushDelay;
+	}
+	
+	public boolean isDirectBuffer() {
+		return directBuffer;
+	}
+	
+	public void setDirectBuffer(boolean directBuffer) {
+		this.directBuffer = directBuffer;
+	}
+	
+	public int getCompressThreshold() {
+		return compressThreshold;
+	}
+	
+	public void setCompressThreshold(int compressThreshold) {
+		this.compressThreshold = compressThreshold;
+	}
+	
+	public int getMaxBodySize() {
+		return maxBodySize;
+	}
+	
+	public void setMaxBodySize(int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
 }
@@ -0,0 +1,15 @@
+package com.amebame.triton.config;
+
+/**
+ * Policy applied when the worker queue is full.
+ */
+public enum TritonRejectionPolicy {
+
+	// reply server busy error to the client
+	reply,
+	// replied as server busy since requests are received on the I/O thread
+	caller_runs,
+	// drop the request without reply
+	discard
+
+}
@@ -1,5 +1,7 @@
 package com.amebame.triton.config;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Triton Configuration Properties
@@ -9,6 +11,15 @@ public class TritonServerConfiguration {
 	// Netty configuration
 	private TritonNettyConfiguration netty = new TritonNettyConfiguration();
 	
+	// Worker executor
+	private TritonExecutorConfiguration worker;
+	
+	// Executors by the prefix of method names
+	private Map<String, TritonExecutorConfiguration> executors = new LinkedHashMap<>();
+	
+	// Slow request log
+	private TritonSlowlogConfiguration slowlog = new TritonSlowlogConfiguration();
+	
 	// Cassandra
 	private TritonCassandraConfiguration cassandra;
 	
@@ -18,6 +29,12 @@ public class TritonServerConfiguration {
 	// Zookeeper
 	private TritonZookeeperConfiguration zookeeper;
 	
+	// Register MBeans
+	private boolean jmx = true;
+	
+	// Milliseconds to wait for executing requests on shutdown
+	private long shutdownGrace = 10000L;
+	
 	public TritonServerConfiguration() {
 	}
 
@@ -29,6 +46,45 @@ public class TritonServerConfiguration {
 		this.netty = netty;
 	}
 	
+	/**
+	 * Get worker executor configuration.
+	 * The executor is sized by netty.worker if not configured.
+	 * @return
+	 */
+	public TritonExecutorConfiguration getWorker() {
+		if (worker == null) {
+			int size = netty.getWorker();
+			worker = new TritonExecutorConfiguration(size, size);
+		}
+		return worker;
+	}
+	
+	public void setWorker(TritonExecutorConfiguration worker) {
+		this.worker = worker;
+	}
+	
+	/**
+	 * Get executor configurations by the prefix of method names
+	 * such as "cassandra" or "memcached". Methods without
+	 * the configured prefix are executed by the worker executor.
+	 * @return
+	 */
+	public Map<String, TritonExecutorConfiguration> getExecutors() {
+		return executors;
+	}
+	
+	public void setExecutors(Map<String, TritonExecutorConfiguration> executors) {
+		this.executors = executors;
+	}
+	
+	public TritonSlowlogConfiguration getSlowlog() {
+		return slowlog;
+	}
+	
+	public void setSlowlog(TritonSlowlogConfiguration slowlog) {
+		this.slowlog = slowlog;
+	}
+	
 	public TritonCassandraConfiguration getCassandra() {
 		return cassandra;
 	}
@@ -52,4 +108,20 @@ public class TritonServerConfiguration {
 	public void setZookeeper(TritonZookeeperConfiguration zookeeper) {
 		this.zookeeper = zookeeper;
 	}
+	
+	public boolean isJmx() {
+		return jmx;
+	}
+	
+	public void setJmx(boolean jmx) {
+		this.jmx = jmx;
+	}
+	
+	public long getShutdownGrace() {
+		return shutdownGrace;
+	}
+	
+	public void setShutdownGrace(long shutdownGrace) {
+		this.shutdownGrace = shutdownGrace;
+	}
 }
@@ -0,0 +1,54 @@
+package com.amebame.triton.config;
+
+/**
+ * Configuration for the slow request log.
+ */
+public class TritonSlowlogConfiguration {
+	
+	// Log requests slower than this in millis (default 100ms, 0 to disable)
+	private long threshold = 100L;
+	
+	// Number of slow requests kept for triton.slowlog
+	private int size = 128;
+	
+	// Rate of requests whose body is captured (0.0 to 1.0)
+	private double sampleRate = 0.1;
+	
+	// Maximum bytes of the captured body
+	private int sampleSize = 256;
+	
+	public TritonSlowlogConfiguration() {
+	}
+	
+	public long getThreshold() {
+		return threshold;
+	}
+	
+	public void setThreshold(long threshold) {
+		this.threshold = threshold;
+	}
+	
+	public int getSize() {
+		return size;
+	}
+	
+	public void setSize(int size) {
+		this.size = size;
+	}
+	
+	public double getSampleRate() {
+		return sampleRate;
+	}
+	
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+	
+	public int getSampleSize() {
+		return sampleSize;
+	}
+	
+	public void setSampleSize(int sampleSize) {
+		this.sampleSize = sampleSize;
+	}
+}
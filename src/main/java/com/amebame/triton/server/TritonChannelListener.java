@@ -0,0 +1,17 @@
+package com.amebame.triton.server;
+
+import org.jboss.netty.channel.Channel;
+
+/**
+ * TritonChannelListener is the interface for
+ * releasing resources bound to the client channel.
+ */
+public interface TritonChannelListener {
+	
+	/**
+	 * Called when the client channel is closed.
+	 * @param channel
+	 */
+	void channelClosed(Channel channel);
+
+}
@@ -0,0 +1,78 @@
+package com.amebame.triton.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TritonDeadline} holds the deadline of the request executed
+ * on the current thread, so backend clients can limit their operation
+ * timeouts to the remaining budget without changing method signatures.
+ * Deadlines are nano times of {@link System#nanoTime()}.
+ */
+public class TritonDeadline {
+
+	private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+	private TritonDeadline() {
+	}
+
+	/**
+	 * Set the deadline of the current thread
+	 * @param deadline nano time of the deadline or null if no deadline
+	 * @return previous deadline to be restored
+	 */
+	public static Long set(Long deadline) {
+		Long previous = CURRENT.get();
+		if (deadline == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(deadline);
+		}
+		return previous;
+	}
+
+	/**
+	 * Clear the deadline of the current thread
+	 */
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Get the remaining time until the deadline.
+	 * Returns -1 if the current thread has no deadline,
+	 * and 0 if the deadline has passed.
+	 * @param unit
+	 * @return
+	 */
+	public static long remaining(TimeUnit unit) {
+		Long deadline = CURRENT.get();
+		if (deadline == null) {
+			return -1L;
+		}
+		long remaining = deadline - System.nanoTime();
+		if (remaining <= 0) {
+			return 0L;
+		}
+		// round up not to be 0 before the deadline
+		return Math.max(1L, unit.convert(remaining, TimeUnit.NANOSECONDS));
+	}
+
+	/**
+	 * Get the timeout limited by the remaining time
+	 * @param timeout default timeout
+	 * @param unit unit of the timeout
+	 * @return
+	 * @throws TritonDeadlineException if the deadline has passed
+	 */
+	public static long timeout(long timeout, TimeUnit unit) {
+		long remaining = remaining(unit);
+		if (remaining < 0) {
+			return timeout;
+		}
+		if (remaining == 0) {
+			throw new TritonDeadlineException("deadline exceeded");
+		}
+		return Math.min(timeout, remaining);
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.amebame.triton.server;
+
+/**
+ * Thrown when the request exceeds the deadline given by the client.
+ * Replied with {@link TritonServerErrors#deadline_exceeded}.
+ */
+public class TritonDeadlineException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TritonDeadlineException(String message) {
+		super(message);
+	}
+
+	public TritonDeadlineException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.amebame.triton.server;
+
+/**
+ * Status of {@link TritonServerExecutor}
+ */
+public class TritonExecutorStatus {
+	
+	private String name;
+	
+	private int queue;
+	
+	private int queueCapacity;
+	
+	private int active;
+	
+	private int pool;
+	
+	private int largestPool;
+	
+	private int core;
+	
+	private int max;
+	
+	private long completed;
+	
+	private long rejected;
+
+	public TritonExecutorStatus() {
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getQueue() {
+		return queue;
+	}
+
+	public void setQueue(int queue) {
+		this.queue = queue;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public void setActive(int active) {
+		this.active = active;
+	}
+
+	public int getPool() {
+		return pool;
+	}
+
+	public void setPool(int pool) {
+		this.pool = pool;
+	}
+
+	public int getLargestPool() {
+		return largestPool;
+	}
+
+	public void setLargestPool(int largestPool) {
+		this.largestPool = largestPool;
+	}
+
+	public int getCore() {
+		return core;
+	}
+
+	public void setCore(int core) {
+		this.core = core;
+	}
+
+	public int getMax() {
+		return max;
+	}
+
+	public void setMax(int max) {
+		this.max = max;
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(long completed) {
+		this.completed = completed;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+}
@@ -20,4 +20,13 @@ public @interface TritonMethod {
 	 * @return
 	 */
 	boolean async() default false;
+	
+	/**
+	 * inline execution flag.
+	 * Inline methods are executed on the I/O thread without
+	 * handing off to the worker. Only constant time methods
+	 * which never block should be marked.
+	 * @return
+	 */
+	boolean inline() default false;
 }
@@ -4,8 +4,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.socket.nio.NioServerBossPool;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
@@ -19,6 +21,8 @@ import com.amebame.triton.config.TritonServerConfiguration;
 import com.amebame.triton.exception.TritonErrors;
 import com.amebame.triton.exception.TritonRuntimeException;
 import com.amebame.triton.json.Json;
+import com.amebame.triton.server.jmx.TritonChannelMonitor;
+import com.amebame.triton.server.jmx.TritonJmxSetup;
 import com.amebame.triton.service.cassandra.TritonCassandraClient;
 import com.amebame.triton.service.cassandra.TritonCassandraSetup;
 import com.amebame.triton.service.lock.LockSetup;
@@ -48,6 +52,7 @@ public class TritonModule extends AbstractModule {
 		configureCassandra();
 		configureMemcached();
 		configureLock();
+		configureJmx();
 		// configureHBase();
 		// configureRedis();
 	}
@@ -85,18 +90,20 @@ public class TritonModule extends AbstractModule {
 		};
 		ThreadRenamingRunnable.setThreadNameDeterminer(determiner);
 		int boss = config.getNetty().getBoss();
-		NioServerBossPool bossPool = new NioServerBossPool(
-				Executors.newFixedThreadPool(
-						boss, new NamedThreadFactory("triton-boss-")),
-						boss);
-		NioWorkerPool corePool = new NioWorkerPool(
-				Executors.newFixedThreadPool(
-						boss,
-						new NamedThreadFactory("triton-core-")),
-						boss);
+		ThreadPoolExecutor bossExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(
+				boss, new NamedThreadFactory("triton-boss-"));
+		ThreadPoolExecutor coreExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(
+				boss, new NamedThreadFactory("triton-core-"));
+		NioServerBossPool bossPool = new NioServerBossPool(bossExecutor, boss);
+		NioWorkerPool corePool = new NioWorkerPool(coreExecutor, boss);
 		NioServerSocketChannelFactory channelFactory = new NioServerSocketChannelFactory(bossPool, corePool);
 		ServerBootstrap bootstrap = new ServerBootstrap(channelFactory);
+		if (config.getNetty().isDirectBuffer()) {
+			// replies are encoded into slices of preallocated direct buffers
+			bootstrap.setOption("child.bufferFactory", new DirectChannelBufferFactory());
+		}
 		bind(ChannelFactory.class).toInstance(channelFactory);
+		bind(TritonChannelMonitor.class).toInstance(new TritonChannelMonitor(bossExecutor, coreExecutor));
 		bind(ServerBootstrap.class).toInstance(bootstrap);
 	}
 	
@@ -121,5 +128,12 @@ public class TritonModule extends AbstractModule {
 	private void configureLock() {
 		bind(LockSetup.class).asEagerSingleton();
 	}
+	
+	private void configureJmx() {
+		if (!config.isJmx()) {
+			return;
+		}
+		bind(TritonJmxSetup.class).asEagerSingleton();
+	}
 
 }
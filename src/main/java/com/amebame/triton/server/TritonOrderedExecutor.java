@@ -0,0 +1,191 @@
+package com.amebame.triton.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jboss.netty.channel.Channel;
+
+import com.amebame.triton.config.TritonExecutorConfiguration;
+import com.amebame.triton.service.TritonScheduler;
+
+/**
+ * {@link TritonOrderedExecutor} executes requests of the same
+ * channel in the received order. Each channel has a serial lane
+ * and lanes are multiplexed over the shared {@link TritonServerExecutor},
+ * so requests from different channels run in parallel.
+ * A lane runs limited number of requests at once and then goes to
+ * the tail of the executor queue, so a noisy client cannot starve
+ * the others. If the executor is full, the lane is resubmitted later
+ * by the scheduler instead of holding the worker thread.
+ */
+public class TritonOrderedExecutor {
+
+	private static final Logger log = LogManager.getLogger(TritonOrderedExecutor.class);
+
+	// delay to resubmit the lane when the executor is full (ms)
+	private static final long RETRY_DELAY = 1L;
+
+	private TritonServerExecutor executor;
+
+	private TritonScheduler scheduler;
+
+	private ConcurrentMap<Integer, Lane> lanes;
+
+	private int capacity;
+
+	private int batch;
+
+	public TritonOrderedExecutor(TritonServerExecutor executor, TritonExecutorConfiguration config, TritonScheduler scheduler) {
+		this.executor = executor;
+		this.scheduler = scheduler;
+		this.lanes = new ConcurrentHashMap<>();
+		this.capacity = config.getLaneCapacity();
+		this.batch = Math.max(1, config.getLaneBatch());
+	}
+
+	/**
+	 * Execute the task in the lane of the channel.
+	 * Returns false if the task was rejected or discarded.
+	 * @param channel
+	 * @param task
+	 * @return
+	 */
+	public boolean execute(Channel channel, Runnable task) {
+		Lane lane = getLane(channel);
+		if (!lane.offer(task)) {
+			// too many pending requests on the channel
+			executor.reject();
+			return false;
+		}
+		if (lane.schedule()) {
+			if (executor.tryExecute(lane)) {
+				return true;
+			}
+			executor.reject();
+			lane.cancel(task);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Remove the lane of the closed channel.
+	 * Pending requests are still executed.
+	 * @param channel
+	 */
+	public void remove(Channel channel) {
+		lanes.remove(channel.getId());
+	}
+
+	/**
+	 * Get number of lanes
+	 * @return
+	 */
+	public int getLaneCount() {
+		return lanes.size();
+	}
+
+	private Lane getLane(Channel channel) {
+		Integer id = channel.getId();
+		Lane lane = lanes.get(id);
+		if (lane == null) {
+			lane = new Lane();
+			Lane current = lanes.putIfAbsent(id, lane);
+			if (current != null) {
+				lane = current;
+			}
+		}
+		return lane;
+	}
+
+	/**
+	 * Serial execution lane of the channel
+	 */
+	private class Lane implements Runnable {
+
+		private Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+		private AtomicInteger size = new AtomicInteger();
+
+		private AtomicBoolean scheduled = new AtomicBoolean();
+
+		private boolean offer(Runnable task) {
+			if (size.incrementAndGet() > capacity) {
+				size.decrementAndGet();
+				return false;
+			}
+			tasks.offer(task);
+			return true;
+		}
+
+		/**
+		 * Mark the lane as scheduled. Returns true if the
+		 * caller should submit the lane to the executor.
+		 * @return
+		 */
+		private boolean schedule() {
+			return scheduled.compareAndSet(false, true);
+		}
+
+		/**
+		 * Cancel the task which could not be scheduled
+		 * @param task
+		 */
+		private void cancel(Runnable task) {
+			if (tasks.remove(task)) {
+				size.decrementAndGet();
+			}
+			scheduled.set(false);
+		}
+
+		@Override
+		public void run() {
+			for (int i = 0; i < batch; i++) {
+				Runnable task = tasks.poll();
+				if (task == null) {
+					break;
+				}
+				size.decrementAndGet();
+				try {
+					task.run();
+				} catch (Exception e) {
+					log.error("failed to execute the task", e);
+				}
+			}
+			scheduled.set(false);
+			// reschedule to the tail if tasks are remaining
+			if (!tasks.isEmpty() && schedule()) {
+				submit();
+			}
+		}
+
+		/**
+		 * Submit the scheduled lane to the executor.
+		 * Retried by the scheduler while the executor is full.
+		 */
+		private void submit() {
+			if (executor.tryExecute(this)) {
+				return;
+			}
+			if (executor.isShutdown()) {
+				log.warn("dropped {} pending requests of the lane since the executor is shut down", size.get());
+				tasks.clear();
+				size.set(0);
+				return;
+			}
+			scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					submit();
+				}
+			}, RETRY_DELAY);
+		}
+	}
+
+}
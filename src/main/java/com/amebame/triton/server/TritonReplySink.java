@@ -0,0 +1,25 @@
+package com.amebame.triton.server;
+
+/**
+ * TritonReplySink is the interface for
+ * capturing the reply of the sub request
+ * instead of writing it to the channel.
+ */
+public interface TritonReplySink {
+	
+	/**
+	 * Called when the sub request replies the result.
+	 * @param body
+	 * @return false if the reply is no longer awaited
+	 */
+	boolean reply(Object body);
+	
+	/**
+	 * Called when the sub request replies the error.
+	 * @param errorCode
+	 * @param text
+	 * @return false if the reply is no longer awaited
+	 */
+	boolean error(int errorCode, String text);
+
+}
@@ -1,12 +1,19 @@
 package com.amebame.triton.server;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelPipelineFactory;
+import org.jboss.netty.channel.group.ChannelGroup;
 
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.server.protocol.TritonFrame;
+import com.amebame.triton.server.protocol.TritonServerPush;
+import com.amebame.triton.server.protocol.TritonServerReply;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.google.inject.Guice;
@@ -22,12 +29,18 @@ public class TritonServer {
 	@Parameter(names = {"-c","--config"}, description="config path")
 	private String configPath = null;
 	
+	// configuration given without the file
+	private TritonServerConfiguration config = null;
+	
 	@Parameter(names = {"-h","--help"}, description="print this help")
 	private boolean help = false;
 	
 	// Guice injector
 	private Injector injector;
 	
+	// bound server channel
+	private Channel channel;
+	
 	public TritonServer() {
 	}
 	
@@ -39,14 +52,30 @@ public class TritonServer {
 		this.configPath = configPath;
 	}
 	
+	public void setConfig(TritonServerConfiguration config) {
+		this.config = config;
+	}
+	
+	/**
+	 * Get the injector of the started server
+	 * @return
+	 */
+	public Injector getInjector() {
+		return injector;
+	}
+	
 	public void start() {
 		log.info("starting triton server");
 		try {
-			injector = Guice.createInjector(new TritonModule(configPath));
+			if (config != null) {
+				injector = Guice.createInjector(new TritonModule(config));
+			} else {
+				injector = Guice.createInjector(new TritonModule(configPath));
+			}
 			ServerBootstrap bootstrap = injector.getInstance(ServerBootstrap.class);
 			ChannelPipelineFactory pipelineFactory = injector.getInstance(TritonServerPipelineFactory.class);
 			bootstrap.setPipelineFactory(pipelineFactory);
-			bootstrap.bind(new InetSocketAddress(port));
+			channel = bootstrap.bind(new InetSocketAddress(port));
 			log.info("triton server started on port {}", port);
 		} catch (Exception e) {
 			log.error("failed to start the server {}", e.getMessage(), e);
@@ -64,6 +93,43 @@ public class TritonServer {
 		}
 	}
 	
+	/**
+	 * Shutdown the server without failing requests in flight.
+	 * <ol>
+	 * <li>stop accepting new connections</li>
+	 * <li>stop reading from clients and push the shutdown event</li>
+	 * <li>wait for executors to complete requests within the grace period</li>
+	 * <li>close client channels and clean backends</li>
+	 * </ol>
+	 */
+	public void shutdown() {
+		if (injector == null) {
+			return;
+		}
+		log.info("draining triton server");
+		long grace = injector.getInstance(TritonServerConfiguration.class).getShutdownGrace();
+		TritonServerContext context = injector.getInstance(TritonServerContext.class);
+		if (channel != null) {
+			channel.close().awaitUninterruptibly();
+		}
+		ChannelGroup channels = context.getChannels();
+		channels.setReadable(false).awaitUninterruptibly();
+		channels.write(new TritonServerReply(TritonFrame.PUSH, 0,
+				new TritonServerPush(TritonServerPush.SHUTDOWN, grace)));
+		context.shutdown();
+		try {
+			if (!context.awaitTermination(grace)) {
+				log.warn("executors did not complete in {} ms", grace);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// pending replies are written before closing
+		channels.close().awaitUninterruptibly(grace, TimeUnit.MILLISECONDS);
+		injector.getInstance(TritonServerCleaner.class).clean();
+		stop();
+	}
+	
 	public static void main(String[] args) {
 		
 		TritonServer server = new TritonServer();
@@ -84,11 +150,8 @@ public class TritonServer {
 		}
 		@Override
 		public void run() {
-			// shutdown with cleaner
-			TritonServerCleaner cleaner = server.injector.getInstance(TritonServerCleaner.class);
-			cleaner.clean();
-			// stop the server
-			server.stop();
+			// drain requests then clean backends
+			server.shutdown();
 		}
 	}
 
@@ -1,34 +1,107 @@
 package com.amebame.triton.server;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+
+import com.amebame.triton.config.TritonExecutorConfiguration;
 import com.amebame.triton.config.TritonServerConfiguration;
-import com.amebame.triton.util.NamedThreadFactory;
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.amebame.triton.service.TritonScheduler;
 
+/**
+ * {@link TritonServerContext} holds server methods and executors.
+ * Methods are routed to the executor configured for the longest
+ * prefix of the method name, such as <code>cassandra</code> for
+ * <code>cassandra.column.get</code>. Methods without the configured
+ * prefix are executed by the worker executor.
+ */
 @Singleton
 public class TritonServerContext {
 	
+	private static final String WORKER = "worker";
+	
 	private TritonServerMethodMap methodMap;
 	
-	private ExecutorService executor;
+	private TritonServerExecutor executor;
+	
+	// executors by the prefix of method names
+	private Map<String, TritonServerExecutor> executors;
+	
+	// lanes to keep order per channel by the executor name
+	private Map<String, TritonOrderedExecutor> orderedExecutors;
+	
+	// connected client channels. closed channels are removed by the group
+	private ChannelGroup channels;
+	
+	// resubmits lanes while the executor is full
+	private TritonScheduler scheduler;
+	
+	// requests waiting for the future of the deferred method
+	private AtomicInteger deferred;
+	
+	// listeners notified when the client channel is closed
+	private List<TritonChannelListener> channelListeners;
 	
 	@Inject
-	public TritonServerContext(TritonServerConfiguration config) {
+	public TritonServerContext(TritonServerConfiguration config, TritonScheduler scheduler) {
+		this.scheduler = scheduler;
 		methodMap = new TritonServerMethodMap();
-		executor = new ThreadPoolExecutor(
-				1,
-				config.getNetty().getWorker(),
-				60L,
-				TimeUnit.SECONDS,
-				new LinkedBlockingQueue<Runnable>(),
-				new NamedThreadFactory("triton-worker-")
-		);
+		executors = new LinkedHashMap<>();
+		orderedExecutors = new HashMap<>();
+		channels = new DefaultChannelGroup("triton-clients");
+		deferred = new AtomicInteger();
+		channelListeners = new CopyOnWriteArrayList<>();
+		TritonExecutorConfiguration workerConfig = config.getWorker();
+		executor = createExecutor(WORKER, workerConfig, workerConfig.isOrdered());
+		for (Entry<String, TritonExecutorConfiguration> entry : config.getExecutors().entrySet()) {
+			String prefix = prefixOf(entry.getKey());
+			if (WORKER.equals(prefix)) {
+				throw new TritonRuntimeException(TritonErrors.server_error, "executor name " + WORKER + " is reserved");
+			}
+			TritonExecutorConfiguration executorConfig = entry.getValue();
+			// executors without the setting keep the order as the worker does
+			boolean ordered = executorConfig.hasOrdered() ? executorConfig.isOrdered() : workerConfig.isOrdered();
+			executors.put(prefix, createExecutor(prefix, executorConfig, ordered));
+		}
+	}
+	
+	private TritonServerExecutor createExecutor(String name, TritonExecutorConfiguration config, boolean ordered) {
+		TritonServerExecutor created = new TritonServerExecutor(name, config);
+		if (ordered) {
+			orderedExecutors.put(name, new TritonOrderedExecutor(created, config, scheduler));
+		}
+		return created;
+	}
+	
+	/**
+	 * Normalize the prefix such as "cassandra.*" to "cassandra"
+	 * @param key
+	 * @return
+	 */
+	private static String prefixOf(String key) {
+		String prefix = key.trim();
+		if (prefix.endsWith("*")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		if (prefix.endsWith(".")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		return prefix;
 	}
 	
 	/**
@@ -48,11 +121,212 @@ public class TritonServerContext {
 		return methodMap.getMethod(name);
 	}
 
+	/**
+	 * Get server method by id
+	 * @param id
+	 * @return
+	 */
+	public TritonServerMethod getServerMethod(int id) {
+		return methodMap.getMethod(id);
+	}
+	
+	/**
+	 * Get all server methods
+	 * @return
+	 */
+	public List<TritonServerMethod> getServerMethods() {
+		return methodMap.getMethods();
+	}
+	
+	/**
+	 * Get the table of method ids by the name
+	 * @return
+	 */
+	public Map<String, Integer> getMethodIds() {
+		return methodMap.getMethodIds();
+	}
+
 	/**
 	 * Get worker executor
 	 * @return
 	 */
-	public ExecutorService getWorkerExecutor() {
+	public TritonServerExecutor getWorkerExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * Get all executors. The worker executor comes first.
+	 * @return
+	 */
+	public List<TritonServerExecutor> getExecutors() {
+		List<TritonServerExecutor> list = new ArrayList<>(executors.size() + 1);
+		list.add(executor);
+		list.addAll(executors.values());
+		return list;
+	}
+	
+	/**
+	 * Get the executor routed to the method
+	 * @param method
+	 * @return
+	 */
+	public TritonServerExecutor getExecutor(TritonServerMethod method) {
+		TritonServerExecutor routed = method.getExecutor();
+		if (routed == null) {
+			routed = route(method.getName());
+			method.setExecutor(routed);
+		}
+		return routed;
+	}
+	
+	/**
+	 * Get the executor routed to the method name
+	 * @param name
+	 * @return
+	 */
+	public TritonServerExecutor getExecutor(String name) {
+		TritonServerMethod method = getServerMethod(name);
+		return method == null ? route(name) : getExecutor(method);
+	}
+	
+	private TritonServerExecutor route(String name) {
+		String prefix = name;
+		while (!executors.isEmpty()) {
+			TritonServerExecutor routed = executors.get(prefix);
+			if (routed != null) {
+				return routed;
+			}
+			int dot = prefix.lastIndexOf('.');
+			if (dot < 0) {
+				break;
+			}
+			prefix = prefix.substring(0, dot);
+		}
 		return executor;
 	}
+	
+	/**
+	 * Execute the request task of the method received from the channel.
+	 * Returns false if the task was rejected or discarded.
+	 * @param method
+	 * @param channel
+	 * @param task
+	 * @return
+	 */
+	public boolean execute(TritonServerMethod method, Channel channel, Runnable task) {
+		TritonServerExecutor routed = getExecutor(method);
+		TritonOrderedExecutor ordered = orderedExecutors.get(routed.getName());
+		if (ordered != null) {
+			return ordered.execute(channel, task);
+		} else {
+			return routed.execute(task);
+		}
+	}
+	
+	/**
+	 * Get number of channel lanes. Returns 0 if not ordered.
+	 * @return
+	 */
+	public int getLaneCount() {
+		int count = 0;
+		for (TritonOrderedExecutor ordered : orderedExecutors.values()) {
+			count += ordered.getLaneCount();
+		}
+		return count;
+	}
+	
+	/**
+	 * Get number of channel lanes of the executor. Returns 0 if not ordered.
+	 * @param target
+	 * @return
+	 */
+	public int getLaneCount(TritonServerExecutor target) {
+		TritonOrderedExecutor ordered = orderedExecutors.get(target.getName());
+		return ordered == null ? 0 : ordered.getLaneCount();
+	}
+	
+	/**
+	 * Add the connected client channel
+	 * @param channel
+	 */
+	public void addChannel(Channel channel) {
+		channels.add(channel);
+	}
+	
+	/**
+	 * Get connected client channels
+	 * @return
+	 */
+	public ChannelGroup getChannels() {
+		return channels;
+	}
+	
+	/**
+	 * Release resources for the closed channel
+	 * @param channel
+	 */
+	public void removeChannel(Channel channel) {
+		for (TritonOrderedExecutor ordered : orderedExecutors.values()) {
+			ordered.remove(channel);
+		}
+		for (TritonChannelListener listener : channelListeners) {
+			listener.channelClosed(channel);
+		}
+	}
+	
+	/**
+	 * Add the listener notified when the client channel is closed
+	 * @param listener
+	 */
+	public void addChannelListener(TritonChannelListener listener) {
+		channelListeners.add(listener);
+	}
+	
+	/**
+	 * Mark the request waiting for the deferred reply
+	 */
+	void beginDeferred() {
+		deferred.incrementAndGet();
+	}
+	
+	/**
+	 * Mark the deferred reply sent
+	 */
+	void endDeferred() {
+		deferred.decrementAndGet();
+	}
+	
+	/**
+	 * Shutdown all executors
+	 */
+	public void shutdown() {
+		for (TritonServerExecutor each : getExecutors()) {
+			each.shutdown();
+		}
+	}
+	
+	/**
+	 * Wait for all executors to complete queued and executing
+	 * requests after {@link #shutdown()}, then wait for deferred
+	 * replies of the completed requests.
+	 * @param timeout timeout in milliseconds shared by all executors
+	 * @return false if the timeout elapsed before termination
+	 * @throws InterruptedException
+	 */
+	public boolean awaitTermination(long timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (TritonServerExecutor each : getExecutors()) {
+			long remaining = deadline - System.nanoTime();
+			if (!each.awaitTermination(Math.max(0L, remaining), TimeUnit.NANOSECONDS)) {
+				return false;
+			}
+		}
+		while (deferred.get() > 0) {
+			if (deadline - System.nanoTime() <= 0) {
+				return false;
+			}
+			Thread.sleep(10L);
+		}
+		return true;
+	}
 }
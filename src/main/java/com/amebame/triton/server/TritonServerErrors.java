@@ -0,0 +1,79 @@
+package com.amebame.triton.server;
+
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.commons.lang.exception.ExceptionUtils;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonException;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Error codes which are raised by the server itself,
+ * not by the methods. Codes are placed apart from
+ * TritonErrors of the client to avoid collision.
+ */
+public enum TritonServerErrors {
+	
+	// worker queue is full
+	server_busy(900),
+	
+	// request exceeded the deadline given by the client
+	deadline_exceeded(901),
+	
+	// sub call was not executed since the previous one failed
+	skipped(902);
+	
+	private int code;
+	
+	private TritonServerErrors(int code) {
+		this.code = code;
+	}
+	
+	public int code() {
+		return code;
+	}
+	
+	/**
+	 * Get the error code to reply for the exception
+	 * @param e
+	 * @return
+	 */
+	public static int codeOf(Throwable e) {
+		if (e instanceof TritonException) {
+			return ((TritonException) e).getError().code();
+		} else if (e instanceof TritonRuntimeException) {
+			return ((TritonRuntimeException) e).getError().code();
+		} else if (e instanceof TritonDeadlineException) {
+			return deadline_exceeded.code();
+		} else if (e instanceof JsonProcessingException) {
+			return TritonErrors.body_format.code();
+		} else {
+			return TritonErrors.server_error.code();
+		}
+	}
+	
+	/**
+	 * Get the root cause of the exception
+	 * @param e
+	 * @return
+	 */
+	public static Throwable causeOf(Throwable e) {
+		Throwable cause = ExceptionUtils.getRootCause(e);
+		return cause == null ? e : cause;
+	}
+	
+	/**
+	 * Get the error message to reply for the cause
+	 * @param cause
+	 * @return
+	 */
+	public static String textOf(Throwable cause) {
+		// swap error message if received cassandra exception
+		if (cause.getClass() == InvalidRequestException.class) {
+			return ((InvalidRequestException) cause).getWhy();
+		}
+		return cause.getMessage();
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.amebame.triton.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amebame.triton.config.TritonExecutorConfiguration;
+import com.amebame.triton.config.TritonRejectionPolicy;
+import com.amebame.triton.util.NamedThreadFactory;
+
+/**
+ * {@link TritonServerExecutor} executes server methods
+ * with the bounded queue. Threads grow from core to max
+ * when the queue is full, and requests are rejected
+ * by the configured policy when both are exhausted.
+ */
+public class TritonServerExecutor {
+	
+	private static final Logger log = LogManager.getLogger(TritonServerExecutor.class);
+	
+	private String name;
+	
+	private ThreadPoolExecutor executor;
+	
+	private TritonRejectionPolicy rejection;
+	
+	private AtomicLong rejected;
+	
+	public TritonServerExecutor(String name, TritonExecutorConfiguration config) {
+		this.name = name;
+		this.rejection = config.getRejection();
+		if (rejection == TritonRejectionPolicy.caller_runs) {
+			// requests are submitted from the I/O thread which should never block
+			log.warn("rejection caller_runs of {} is replied as server busy", name);
+			this.rejection = TritonRejectionPolicy.reply;
+		}
+		this.rejected = new AtomicLong();
+		this.executor = new ThreadPoolExecutor(
+				config.getCore(),
+				config.getMax(),
+				config.getKeepAlive(),
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(config.getQueue()),
+				new NamedThreadFactory("triton-" + name + "-")
+		);
+	}
+	
+	/**
+	 * Get the executor name
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Execute the task. Returns false if the task was rejected
+	 * or discarded by the policy.
+	 * @param task
+	 * @return
+	 */
+	public boolean execute(Runnable task) {
+		if (tryExecute(task)) {
+			return true;
+		}
+		rejected.incrementAndGet();
+		return false;
+	}
+	
+	/**
+	 * Execute the task without applying the rejection policy.
+	 * Returns false if the queue is full. The caller should
+	 * count with {@link #reject()} if it gives up the task.
+	 * @param task
+	 * @return
+	 */
+	public boolean tryExecute(Runnable task) {
+		try {
+			executor.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Count the task rejected outside of the executor
+	 */
+	public void reject() {
+		rejected.incrementAndGet();
+	}
+	
+	/**
+	 * Get the rejection policy
+	 * @return
+	 */
+	public TritonRejectionPolicy getRejection() {
+		return rejection;
+	}
+	
+	/**
+	 * Get the status of the executor
+	 * @return
+	 */
+	public TritonExecutorStatus getStatus() {
+		TritonExecutorStatus status = new TritonExecutorStatus();
+		status.setName(name);
+		status.setQueue(executor.getQueue().size());
+		status.setQueueCapacity(executor.getQueue().size() + executor.getQueue().remainingCapacity());
+		status.setActive(executor.getActiveCount());
+		status.setPool(executor.getPoolSize());
+		status.setLargestPool(executor.getLargestPoolSize());
+		status.setCore(executor.getCorePoolSize());
+		status.setMax(executor.getMaximumPoolSize());
+		status.setCompleted(executor.getCompletedTaskCount());
+		status.setRejected(rejected.get());
+		return status;
+	}
+	
+	/**
+	 * Get number of tasks waiting in the queue
+	 * @return
+	 */
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+	
+	/**
+	 * Get number of threads executing tasks
+	 * @return
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+	
+	/**
+	 * Get number of rejected tasks
+	 * @return
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+	
+	/**
+	 * Shutdown the executor
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	/**
+	 * Check the executor has been shut down
+	 * @return
+	 */
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+	
+	/**
+	 * Wait for queued and executing tasks after shutdown
+	 * @param timeout
+	 * @param unit
+	 * @return false if the timeout elapsed before termination
+	 * @throws InterruptedException
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+}
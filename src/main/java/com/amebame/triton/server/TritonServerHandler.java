@@ -1,11 +1,11 @@
 package com.amebame.triton.server;
 
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 
-import org.apache.cassandra.thrift.InvalidRequestException;
-import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jboss.netty.channel.Channel;
@@ -15,13 +15,18 @@ import org.jboss.netty.channel.ExceptionEvent;
 import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
 
-import com.amebame.triton.entity.TritonError;
+import com.amebame.triton.config.TritonRejectionPolicy;
+import com.amebame.triton.config.TritonServerConfiguration;
 import com.amebame.triton.exception.TritonErrors;
-import com.amebame.triton.exception.TritonException;
 import com.amebame.triton.exception.TritonRuntimeException;
-import com.amebame.triton.json.Json;
-import com.amebame.triton.protocol.TritonMessage;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.amebame.triton.server.protocol.TritonServerFrame;
+import com.amebame.triton.server.stats.TritonMethodStats;
+import com.amebame.triton.server.stats.TritonSlowRequest;
+import com.amebame.triton.server.stats.TritonSlowlog;
+import com.amebame.triton.service.TritonScheduler;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class TritonServerHandler extends SimpleChannelUpstreamHandler {
 	
@@ -29,121 +34,271 @@ public class TritonServerHandler extends SimpleChannelUpstreamHandler {
 	
 	private TritonServerContext context;
 	
+	private TritonSlowlog slowlog;
+	
+	// replies deferred methods at the deadline
+	private TritonScheduler scheduler;
+	
+	// time limit of inline execution in nano seconds
+	private long inlineLimit;
+	
 	@Inject
-	public TritonServerHandler(TritonServerContext context) {
+	public TritonServerHandler(TritonServerContext context, TritonServerConfiguration config,
+			TritonSlowlog slowlog, TritonScheduler scheduler) {
 		this.context = context;
+		this.slowlog = slowlog;
+		this.scheduler = scheduler;
+		this.inlineLimit = TimeUnit.MILLISECONDS.toNanos(config.getNetty().getInlineLimit());
 	}
 
 	@Override
 	public void messageReceived(ChannelHandlerContext ctx, MessageEvent evt) throws Exception {
 		Channel channel = evt.getChannel();
-		TritonMessage message = (TritonMessage) evt.getMessage();
-		ExecutorService executor = context.getWorkerExecutor();
-		executor.submit(new TritonServerWorker(message, channel));
+		TritonServerFrame frame = (TritonServerFrame) evt.getMessage();
+		TritonServerRequest request = new TritonServerRequest(channel, frame);
+		request.start();
+		if (slowlog.sample()) {
+			// capture before the parser reads the body
+			request.captureBody(slowlog.getSampleSize());
+		}
+		try {
+			// resolve the method from the envelope
+			request.resolve(context);
+		} catch (Exception e) {
+			request.release();
+			sendError(request, e);
+			request.finish();
+			return;
+		}
+		TritonServerMethod method = request.getMethod();
+		if (method.isInline()) {
+			// execute on the I/O thread without hand off
+			long start = System.nanoTime();
+			execute(request);
+			method.checkInline(System.nanoTime() - start, inlineLimit);
+		} else if (!context.execute(method, channel, new TritonServerWorker(request))) {
+			// shed the request if the queue is full
+			log.debug("rejected the request from {} since the server is busy", channel.getId());
+			if (context.getExecutor(method).getRejection() == TritonRejectionPolicy.reply) {
+				request.sendError(TritonServerErrors.server_busy.code(), "server is busy");
+			}
+			request.release();
+			request.finish();
+		}
 	}
 	
 	/**
 	 * Execution Worker
 	 */
 	private class TritonServerWorker implements Runnable {
-		private TritonMessage message;
-		private Channel channel;
-		private TritonServerWorker(TritonMessage message, Channel channel) {
-			this.message = message;
-			this.channel = channel;
+		private TritonServerRequest request;
+		private TritonServerWorker(TritonServerRequest request) {
+			this.request = request;
 		}
 		@Override
 		public void run() {
-			// parse json from body
-			try {
-				JsonNode node = Json.tree(message.getBody());
-				if (node == null) {
-					sendError(message.getCallId(), channel, TritonErrors.body_format.code(), "body cannot be empty");
-					return;
-				}
-				JsonNode nameNode = node.get("name");
-				if (nameNode == null) {
-					sendError(message.getCallId(), channel, TritonErrors.body_format.code(), "name should be specified in a body");
-					return;
-				}
-				String name = nameNode.asText();
-				TritonServerMethod method = context.getServerMethod(name);
-				if (method == null) {
-					sendError(message.getCallId(), channel, TritonErrors.body_format.code(), "method " + name + " does not exist");
-					return;
-				}
-				JsonNode body = node.get("body");
-				if (log.isTraceEnabled()) {
-					log.trace("message received {} - {}", name, body.toString());
-				}
-				// invoke reflected method
-				Object result = method.invoke(channel, message, body);
-				if (method.isSynchronous()) {
-					// send reply
-					sendReply(message.getCallId(), channel, result);
-				}
-
-			} catch (Exception e) {
-				// get error code
-				int errorCode = TritonErrors.server_error.code();
-				if (e instanceof TritonException) {
-					errorCode = ((TritonException) e).getError().code();
-				} else if (e instanceof TritonRuntimeException) {
-					errorCode = ((TritonRuntimeException) e).getError().code();
-				}
-				// get root cause
-				Throwable ex = ExceptionUtils.getRootCause(e);
-				ex = ex == null ? e : ex;
-				// if failed to parse
-				log.warn("method execution failed", ex);
-				// return client as error
-				sendError(message.getCallId(), channel, errorCode, ex);
-			}
+			execute(request);
 		}
 	}
 	
 	/**
-	 * Send reply to the client
-	 * @param callId
-	 * @param channel
-	 * @param body
+	 * Bind the body and execute the method of the request
+	 * @param request
 	 */
-	private void sendReply(int callId, Channel channel, Object body) {
-		if (callId > 0) {
-			TritonMessage message = new TritonMessage(TritonMessage.REPLY, callId, body);
-			channel.write(message);
+	private void execute(TritonServerRequest request) {
+		TritonServerMethod method = request.getMethod();
+		TritonMethodStats stats = method.getStats();
+		long start = System.nanoTime();
+		stats.recordQueue(start - request.getReceived());
+		if (request.isExpired()) {
+			// client has given up the request
+			log.debug("dropped the expired request of {}", method.getName());
+			stats.error(TritonServerErrors.deadline_exceeded.code());
+			request.release();
+			request.sendError(TritonServerErrors.deadline_exceeded.code(), "deadline exceeded");
+			request.finish();
+			return;
+		}
+		// backend clients read the remaining time
+		TritonDeadline.set(request.getDeadline());
+		int bodySize = request.getFrame().getBodySize();
+		long bound = start;
+		long end = start;
+		Integer error = null;
+		boolean deferred = false;
+		try {
+			if (log.isTraceEnabled()) {
+				log.trace("message received {} - {} bytes", method.getName(), bodySize);
+			}
+			// bind the body with streaming parser
+			Object body = request.bind();
+			bound = System.nanoTime();
+			// invoke compiled method
+			Object result = method.invoke(request, body);
+			if (method.isDeferred() && result != null) {
+				// reply when the backend completes without blocking the worker
+				deferred = true;
+				context.beginDeferred();
+				ListenableFuture<?> future = (ListenableFuture<?>) result;
+				TritonDeferredReply reply = new TritonDeferredReply(request, bodySize, start, bound);
+				Futures.addCallback(future, reply);
+				reply.expireAt(future, TritonDeadline.remaining(TimeUnit.MILLISECONDS));
+				return;
+			}
+			end = System.nanoTime();
+			stats.recordExecute(end - start);
+			stats.success();
+			if (method.isSynchronous()) {
+				// send reply
+				request.sendReply(result);
+			}
+		} catch (Exception e) {
+			end = System.nanoTime();
+			error = TritonServerErrors.codeOf(e);
+			stats.recordExecute(end - start);
+			stats.error(error);
+			sendError(request, e);
+		} finally {
+			TritonDeadline.clear();
+			if (!deferred) {
+				request.finish();
+			}
+		}
+		if (slowlog.isSlow(end - request.getReceived())) {
+			logSlow(request, bodySize, start, bound, end, error);
 		}
 	}
 	
 	/**
-	 * Send error to the client as reply
-	 * @param callId
-	 * @param channel
-	 * @param e
+	 * Reply of the deferred method sent from the callback of the future
+	 * or from the scheduler at the deadline, whichever comes first
 	 */
-	private void sendError(int callId, Channel channel, int errorCode, Throwable e) {
-		if (callId > 0) {
-			String text = e.getMessage();
-			// swap error message if received cassandra exception
-			if (e.getClass() == InvalidRequestException.class) {
-				text = ((InvalidRequestException) e).getWhy();
+	private class TritonDeferredReply implements FutureCallback<Object> {
+		private TritonServerRequest request;
+		private int bodySize;
+		private long start;
+		private long bound;
+		// set when the reply has been sent
+		private AtomicBoolean replied;
+		private volatile ScheduledFuture<?> timeout;
+		private TritonDeferredReply(TritonServerRequest request, int bodySize, long start, long bound) {
+			this.request = request;
+			this.bodySize = bodySize;
+			this.start = start;
+			this.bound = bound;
+			this.replied = new AtomicBoolean();
+		}
+		/**
+		 * Reply the deadline exceeded and cancel the future
+		 * if not completed until the deadline
+		 * @param future
+		 * @param remaining remaining milliseconds. negative if no deadline
+		 */
+		private void expireAt(final ListenableFuture<?> future, long remaining) {
+			if (remaining < 0 || replied.get()) {
+				return;
+			}
+			timeout = scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					if (fail(new TritonDeadlineException("deadline exceeded"))) {
+						future.cancel(true);
+					}
+				}
+			}, remaining);
+			if (replied.get()) {
+				// completed while scheduling
+				timeout.cancel(false);
+			}
+		}
+		@Override
+		public void onSuccess(Object result) {
+			// the result is sent even after the deadline since writes have been applied
+			if (!replied.compareAndSet(false, true)) {
+				return;
+			}
+			long end = System.nanoTime();
+			TritonMethodStats stats = request.getMethod().getStats();
+			stats.recordExecute(end - start);
+			stats.success();
+			request.sendReply(result);
+			complete(end, null);
+		}
+		@Override
+		public void onFailure(Throwable t) {
+			fail(t);
+		}
+		/**
+		 * Reply the error
+		 * @param t
+		 * @return false if already replied
+		 */
+		private boolean fail(Throwable t) {
+			if (!replied.compareAndSet(false, true)) {
+				return false;
+			}
+			long end = System.nanoTime();
+			Exception e = t instanceof Exception ? (Exception) t : new TritonRuntimeException(TritonErrors.server_error, t);
+			int error = TritonServerErrors.codeOf(e);
+			TritonMethodStats stats = request.getMethod().getStats();
+			stats.recordExecute(end - start);
+			stats.error(error);
+			sendError(request, e);
+			complete(end, error);
+			return true;
+		}
+		private void complete(long end, Integer error) {
+			ScheduledFuture<?> scheduled = timeout;
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+			request.finish();
+			context.endDeferred();
+			if (slowlog.isSlow(end - request.getReceived())) {
+				logSlow(request, bodySize, start, bound, end, error);
 			}
-			TritonMessage message = new TritonMessage(TritonMessage.ERROR, callId, new TritonError(errorCode, text));
-			channel.write(message);
 		}
 	}
 	
 	/**
-	 * Send erro to the client as reply
-	 * @param callId
-	 * @param channel
-	 * @param text
+	 * Add the slow request to the slow log
+	 * @param request
+	 * @param bodySize
+	 * @param start nano time when the execution started
+	 * @param bound nano time when the body was bound
+	 * @param end nano time when the method returned
+	 * @param error error code if failed
 	 */
-	private void sendError(int callId, Channel channel, int errorCode, String text) {
-		if (callId > 0) {
-			TritonMessage message = new TritonMessage(TritonMessage.ERROR, callId, new TritonError(errorCode, text));
-			channel.write(message);
-		}
+	private void logSlow(TritonServerRequest request, int bodySize, long start, long bound, long end, Integer error) {
+		TritonSlowRequest slow = new TritonSlowRequest();
+		slow.setTimestamp(System.currentTimeMillis());
+		slow.setMethod(request.getMethod().getName());
+		slow.setChannel(request.getChannel().getId());
+		slow.setCallId(request.getCallId());
+		slow.setQueue(TimeUnit.NANOSECONDS.toMicros(start - request.getReceived()));
+		slow.setBind(TimeUnit.NANOSECONDS.toMicros(bound - start));
+		slow.setExecute(TimeUnit.NANOSECONDS.toMicros(end - bound));
+		slow.setTotal(TimeUnit.NANOSECONDS.toMicros(end - request.getReceived()));
+		slow.setBodySize(bodySize);
+		slow.setError(error);
+		slow.setBody(request.getBodySample());
+		slowlog.add(slow);
+	}
+	
+	/**
+	 * Send error of the failed request
+	 * @param request
+	 * @param e
+	 */
+	private void sendError(TritonServerRequest request, Exception e) {
+		// get error code
+		int errorCode = TritonServerErrors.codeOf(e);
+		// get root cause
+		Throwable ex = TritonServerErrors.causeOf(e);
+		// if failed to parse
+		log.warn("method execution failed", ex);
+		// return client as error
+		request.sendError(errorCode, TritonServerErrors.textOf(ex));
 	}
 	
 	@Override
@@ -156,6 +311,7 @@ public class TritonServerHandler extends SimpleChannelUpstreamHandler {
 	public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e)
 			throws Exception {
 		super.channelConnected(ctx, e);
+		context.addChannel(e.getChannel());
 		log.debug("client connected {}", e.getChannel().getId());
 	}
 	
@@ -166,4 +322,11 @@ public class TritonServerHandler extends SimpleChannelUpstreamHandler {
 		log.debug("client disconnected {}", e.getChannel().getId());
 	}
 	
+	@Override
+	public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e)
+			throws Exception {
+		super.channelClosed(ctx, e);
+		context.removeChannel(e.getChannel());
+	}
+	
 }
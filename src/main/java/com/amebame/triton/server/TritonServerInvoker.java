@@ -0,0 +1,311 @@
+package com.amebame.triton.server;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+
+import org.jboss.netty.channel.Channel;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.amebame.triton.protocol.TritonMessage;
+import com.amebame.triton.server.util.ServerJson;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * {@link TritonServerInvoker} calls the server method through
+ * a {@link MethodHandle} compiled on registration.
+ * Parameters are resolved by the binding plan which is computed
+ * once from the parameter types, so invocation does not use
+ * reflection nor inspect types per call.
+ * The request body is bound directly to the parameter type with
+ * the cached {@link ObjectReader}. JSON tree is built only when
+ * the method takes {@link JsonNode}.
+ */
+public abstract class TritonServerInvoker {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	/**
+	 * Parameter binding of the server method
+	 */
+	enum Binding {
+		channel,
+		message,
+		request,
+		tree,
+		object
+	}
+
+	private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+
+	private Binding[] bindings;
+
+	// readers for object parameters
+	private ObjectReader[] readers;
+
+	// reader to bind the body if the method takes single object
+	private ObjectReader bodyReader;
+
+	// true if the body should be read as tree
+	private boolean treeBody;
+
+	private TritonServerInvoker(Binding[] bindings, ObjectReader[] readers) {
+		this.bindings = bindings;
+		this.readers = readers;
+		// decide how to bind the body
+		int objects = 0;
+		for (int i = 0; i < bindings.length; i++) {
+			if (bindings[i] == Binding.tree) {
+				treeBody = true;
+			} else if (bindings[i] == Binding.object) {
+				bodyReader = readers[i];
+				objects++;
+			}
+		}
+		if (objects > 1) {
+			// convert from the tree for each parameter
+			treeBody = true;
+		}
+		if (treeBody) {
+			bodyReader = null;
+		}
+	}
+
+	/**
+	 * Check the method reads body as tree
+	 * @return
+	 */
+	public boolean isTreeBody() {
+		return treeBody;
+	}
+
+	/**
+	 * Read the body from the parser which points
+	 * the first token of the body value.
+	 * @param parser
+	 * @return
+	 * @throws IOException
+	 */
+	public Object readBody(JsonParser parser) throws IOException {
+		if (treeBody) {
+			return parser.readValueAsTree();
+		} else if (bodyReader == null) {
+			// body is not used
+			parser.skipChildren();
+			return null;
+		} else if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+			return emptyBody();
+		} else {
+			return bodyReader.readValue(parser);
+		}
+	}
+
+	/**
+	 * Read the body from the tree.
+	 * @param node
+	 * @return
+	 * @throws IOException
+	 */
+	public Object readBody(JsonNode node) throws IOException {
+		if (treeBody) {
+			return node;
+		} else if (bodyReader == null) {
+			return null;
+		} else if (node == null || node.isNull()) {
+			return emptyBody();
+		} else {
+			return bodyReader.readValue(node);
+		}
+	}
+
+	/**
+	 * Get the body if the request does not have it.
+	 * @return
+	 * @throws IOException
+	 */
+	public Object emptyBody() throws IOException {
+		if (bodyReader == null) {
+			return null;
+		}
+		// empty object
+		return bodyReader.readValue(EMPTY_OBJECT);
+	}
+
+	/**
+	 * Invoke the method with the request.
+	 * Exceptions thrown by the method are thrown without wrapping.
+	 * @param request
+	 * @param body
+	 * @return
+	 * @throws Throwable
+	 */
+	public abstract Object invoke(TritonServerRequest request, Object body) throws Throwable;
+
+	/**
+	 * Resolve the argument at the index.
+	 * @param index
+	 * @param request
+	 * @param body
+	 * @return
+	 */
+	protected final Object argument(int index, TritonServerRequest request, Object body) throws IOException {
+		switch (bindings[index]) {
+		case channel:
+			return request.getChannel();
+		case message:
+			return request.getMessage();
+		case request:
+			return request;
+		case tree:
+			return body;
+		default:
+			if (!treeBody) {
+				// already bound to the parameter type
+				return body;
+			}
+			if (body == null) {
+				return readers[index].readValue(EMPTY_OBJECT);
+			}
+			return readers[index].readValue((JsonNode) body);
+		}
+	}
+
+	/**
+	 * Create the invoker for the method of the target object.
+	 * @param object
+	 * @param method
+	 * @return
+	 */
+	public static TritonServerInvoker create(Object object, Method method) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		int length = parameterTypes.length;
+		Binding[] bindings = new Binding[length];
+		ObjectReader[] readers = new ObjectReader[length];
+		for (int i = 0; i < length; i++) {
+			bindings[i] = bindingOf(parameterTypes[i]);
+			if (bindings[i] == Binding.object) {
+				readers[i] = ServerJson.reader(parameterTypes[i]);
+			}
+		}
+		MethodHandle handle;
+		try {
+			handle = LOOKUP.unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new TritonRuntimeException(TritonErrors.server_error, e.getMessage(), e);
+		}
+		if (!Modifier.isStatic(method.getModifiers())) {
+			handle = handle.bindTo(object);
+		}
+		// adapt to (Object...)Object to call with invokeExact
+		handle = handle.asType(MethodType.genericMethodType(length));
+		switch (length) {
+		case 0:
+			return new Invoker0(bindings, readers, handle);
+		case 1:
+			return new Invoker1(bindings, readers, handle);
+		case 2:
+			return new Invoker2(bindings, readers, handle);
+		case 3:
+			return new Invoker3(bindings, readers, handle);
+		default:
+			return new InvokerN(bindings, readers, handle);
+		}
+	}
+
+	private static Binding bindingOf(Class<?> parameterType) {
+		if (parameterType == Channel.class) {
+			return Binding.channel;
+		} else if (parameterType == TritonMessage.class) {
+			return Binding.message;
+		} else if (parameterType == TritonServerRequest.class) {
+			return Binding.request;
+		} else if (parameterType == JsonNode.class) {
+			return Binding.tree;
+		} else {
+			return Binding.object;
+		}
+	}
+
+	private static class Invoker0 extends TritonServerInvoker {
+		private final MethodHandle handle;
+		private Invoker0(Binding[] bindings, ObjectReader[] readers, MethodHandle handle) {
+			super(bindings, readers);
+			this.handle = handle;
+		}
+		@Override
+		public Object invoke(TritonServerRequest request, Object body) throws Throwable {
+			return (Object) handle.invokeExact();
+		}
+	}
+
+	private static class Invoker1 extends TritonServerInvoker {
+		private final MethodHandle handle;
+		private Invoker1(Binding[] bindings, ObjectReader[] readers, MethodHandle handle) {
+			super(bindings, readers);
+			this.handle = handle;
+		}
+		@Override
+		public Object invoke(TritonServerRequest request, Object body) throws Throwable {
+			Object arg0 = argument(0, request, body);
+			return (Object) handle.invokeExact(arg0);
+		}
+	}
+
+	private static class Invoker2 extends TritonServerInvoker {
+		private final MethodHandle handle;
+		private Invoker2(Binding[] bindings, ObjectReader[] readers, MethodHandle handle) {
+			super(bindings, readers);
+			this.handle = handle;
+		}
+		@Override
+		public Object invoke(TritonServerRequest request, Object body) throws Throwable {
+			Object arg0 = argument(0, request, body);
+			Object arg1 = argument(1, request, body);
+			return (Object) handle.invokeExact(arg0, arg1);
+		}
+	}
+
+	private static class Invoker3 extends TritonServerInvoker {
+		private final MethodHandle handle;
+		private Invoker3(Binding[] bindings, ObjectReader[] readers, MethodHandle handle) {
+			super(bindings, readers);
+			this.handle = handle;
+		}
+		@Override
+		public Object invoke(TritonServerRequest request, Object body) throws Throwable {
+			Object arg0 = argument(0, request, body);
+			Object arg1 = argument(1, request, body);
+			Object arg2 = argument(2, request, body);
+			return (Object) handle.invokeExact(arg0, arg1, arg2);
+		}
+	}
+
+	/**
+	 * Fallback for methods which have more than 3 parameters.
+	 */
+	private static class InvokerN extends TritonServerInvoker {
+		private final MethodHandle handle;
+		private final int length;
+		private InvokerN(Binding[] bindings, ObjectReader[] readers, MethodHandle handle) {
+			super(bindings, readers);
+			this.length = bindings.length;
+			this.handle = handle.asSpreader(Object[].class, length);
+		}
+		@Override
+		public Object invoke(TritonServerRequest request, Object body) throws Throwable {
+			Object[] args = new Object[length];
+			for (int i = 0; i < length; i++) {
+				args[i] = argument(i, request, body);
+			}
+			return (Object) handle.invokeExact(args);
+		}
+	}
+}
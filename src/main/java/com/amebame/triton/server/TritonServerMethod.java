@@ -1,33 +1,72 @@
 package com.amebame.triton.server;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
-import org.jboss.netty.channel.Channel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import com.amebame.triton.exception.TritonErrors;
 import com.amebame.triton.exception.TritonException;
 import com.amebame.triton.exception.TritonRuntimeException;
-import com.amebame.triton.json.Json;
-import com.amebame.triton.protocol.TritonMessage;
+import com.amebame.triton.server.stats.TritonMethodStats;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class TritonServerMethod {
 	
+	private static final Logger log = LogManager.getLogger(TritonServerMethod.class);
+	
+	// inline execution is stopped after blocking this count
+	private static final int INLINE_VIOLATION_LIMIT = 3;
+	
+	private int id;
+	
 	private Object object;
 	
 	private Method method;
 	
-	private Class<?>[] parameterTypes;
-	
 	private TritonMethod annotation;
 	
-	public TritonServerMethod(Object object, Method method, TritonMethod annotation) {
+	private TritonServerInvoker invoker;
+	
+	private volatile boolean inline;
+	
+	// replied when the returned future completes
+	private boolean deferred;
+	
+	private AtomicInteger inlineViolations;
+	
+	private TritonMethodStats stats;
+	
+	// executor routed by the name. resolved on the first execution
+	private volatile TritonServerExecutor executor;
+	
+	public TritonServerMethod(int id, Object object, Method method, TritonMethod annotation) {
+		this.id = id;
 		this.object = object;
 		this.method = method;
-		this.parameterTypes = method.getParameterTypes();
 		this.annotation = annotation;
+		this.invoker = TritonServerInvoker.create(object, method);
+		this.inline = annotation.inline();
+		this.deferred = ListenableFuture.class.isAssignableFrom(method.getReturnType());
+		this.inlineViolations = new AtomicInteger();
+		this.stats = new TritonMethodStats(annotation.value());
+	}
+	
+	/**
+	 * Get the id to call the method without the envelope
+	 * @return
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	public String getName() {
+		return annotation.value();
 	}
 	
 	public Object getObject() {
@@ -38,51 +77,112 @@ public class TritonServerMethod {
 		return method;
 	}
 	
+	/**
+	 * Get latencies and results of the method
+	 * @return
+	 */
+	public TritonMethodStats getStats() {
+		return stats;
+	}
+	
 	public boolean isSynchronous() {
 		return !annotation.async();
 	}
 	
-	public Object invoke(Channel channel, TritonMessage message, JsonNode body) {
-		
-		// set dynamic parameters
+	/**
+	 * Check the method returns {@link ListenableFuture} of the result.
+	 * The reply is sent from the callback of the future, so the
+	 * worker thread is not blocked while the backend is executing.
+	 * @return
+	 */
+	public boolean isDeferred() {
+		return deferred;
+	}
+	
+	/**
+	 * Check the method can be executed on the I/O thread
+	 * @return
+	 */
+	public boolean isInline() {
+		return inline;
+	}
+	
+	/**
+	 * Check the elapsed time of the inline execution.
+	 * Inline execution is disabled if the method blocks
+	 * the I/O thread over the limit repeatedly.
+	 * @param elapsed nano seconds
+	 * @param limit nano seconds
+	 */
+	public void checkInline(long elapsed, long limit) {
+		if (elapsed <= limit) {
+			return;
+		}
+		int count = inlineViolations.incrementAndGet();
+		log.warn("inline method {} blocked the I/O thread for {} us", getName(), elapsed / 1000L);
+		if (inline && count >= INLINE_VIOLATION_LIMIT) {
+			inline = false;
+			log.error("inline execution of {} is disabled since it blocked {} times", getName(), count);
+		}
+	}
+	
+	/**
+	 * Read the body from the parser for the parameter type.
+	 * @param parser
+	 * @return
+	 * @throws IOException
+	 */
+	public Object readBody(JsonParser parser) throws IOException {
+		return invoker.readBody(parser);
+	}
+	
+	/**
+	 * Read the body from the tree for the parameter type.
+	 * @param node
+	 * @return
+	 * @throws IOException
+	 */
+	public Object readBody(JsonNode node) throws IOException {
+		return invoker.readBody(node);
+	}
+	
+	/**
+	 * Get the body for the request which does not have body.
+	 * @return
+	 * @throws IOException
+	 */
+	public Object emptyBody() throws IOException {
+		return invoker.emptyBody();
+	}
+	
+	/**
+	 * Get the executor routed to the method.
+	 * Returns null if not resolved yet.
+	 * @return
+	 */
+	TritonServerExecutor getExecutor() {
+		return executor;
+	}
+	
+	void setExecutor(TritonServerExecutor executor) {
+		this.executor = executor;
+	}
+	
+	public Object invoke(TritonServerRequest request, Object body) {
 		try {
-			int length = parameterTypes.length;
-			Object[] args = new Object[length];
-			for (int i = 0; i < length; i++) {
-				Class<?> parameterType = parameterTypes[i];
-				if (parameterType == TritonMessage.class) {
-					args[i] = message;
-				} else if (parameterType == JsonNode.class) {
-					args[i] = body;
-				} else if (parameterType == Channel.class) {
-					args[i] = channel;
-				} else {
-					if (body == null) {
-						// empty object
-						body = Json.object();
-					}
-					args[i] = Json.convert(body, parameterType);
-				}
-			}
-			return method.invoke(object, args);
-		} catch (InvocationTargetException e) {
-			// get cause
-			Throwable cause = e.getCause();
+			return invoker.invoke(request, body);
+		} catch (TritonRuntimeException | TritonDeadlineException e) {
+			throw e;
+		} catch (Throwable e) {
 			int errorCode = TritonErrors.server_error.code();
-			if (cause instanceof TritonException) {
+			if (e instanceof TritonException) {
 				// get error code if exception if TritonException
-				errorCode = ((TritonException) cause).getError().code();
-			} else if (cause instanceof TritonRuntimeException) {
-				// get error code from runtime exception
-				errorCode = ((TritonRuntimeException) cause).getError().code();
+				errorCode = ((TritonException) e).getError().code();
 			}
 			// get root cause
-			cause = ExceptionUtils.getRootCause(e);
+			Throwable cause = ExceptionUtils.getRootCause(e);
 			cause = cause == null ? e : cause;
 			throw new TritonRuntimeException(TritonErrors.codeOf(errorCode), cause);
-		} catch (IllegalAccessException | IllegalArgumentException e) {
-			// throw as error
-			throw new TritonRuntimeException(TritonErrors.server_error, e.getMessage());
 		}
 	}
 
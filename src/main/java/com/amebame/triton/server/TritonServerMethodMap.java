@@ -1,41 +1,103 @@
 package com.amebame.triton.server;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+
 /**
- * Triton Server Handlers
+ * Triton Server Handlers.
+ * Each method is numbered in the registered order of handlers
+ * and the name order of methods in the handler, so clients
+ * can call the method by the id instead of the name.
  * @author namura_suguru
  */
 public class TritonServerMethodMap {
 	
 	private static final Logger log = LogManager.getLogger(TritonServerMethodMap.class);
 	
+	// method id is stored in 2 bytes of the header
+	private static final int MAX_METHOD_ID = 0xffff;
+	
 	private Map<String, TritonServerMethod> map;
+	
+	// methods indexed by the id. index 0 is not used
+	private volatile TritonServerMethod[] methods;
 
 	public TritonServerMethodMap() {
 		map = new HashMap<String, TritonServerMethod>();
+		methods = new TritonServerMethod[1];
 	}
 
 	/**
 	 * Add server methods from the object
 	 * @param object
 	 */
-	public void register(Object object) {
+	public synchronized void register(Object object) {
 		log.info("adding server handler {}", object.getClass().getSimpleName());
-		Method[] methods = object.getClass().getMethods();
-		for (Method method : methods) {
+		for (Method method : annotatedMethods(object.getClass())) {
 			TritonMethod methodAnnotation = method.getAnnotation(TritonMethod.class);
-			if (methodAnnotation != null) {
-				TritonServerMethod tritonMethod = new TritonServerMethod(object, method, methodAnnotation);
-				log.info("adding server method {}", methodAnnotation.value());
-				map.put(methodAnnotation.value(), tritonMethod);
+			int id = nextId(methodAnnotation.value());
+			TritonServerMethod tritonMethod = new TritonServerMethod(id, object, method, methodAnnotation);
+			log.info("adding server method {} as {}", methodAnnotation.value(), id);
+			map.put(methodAnnotation.value(), tritonMethod);
+			this.methods = append(tritonMethod);
+		}
+	}
+	
+	/**
+	 * Get methods annotated with {@link TritonMethod} sorted by the name.
+	 * The order of {@link Class#getMethods()} is not specified, so methods
+	 * are sorted to number the same ids on every server of the same build.
+	 * @param type
+	 * @return
+	 */
+	private static List<Method> annotatedMethods(Class<?> type) {
+		List<Method> list = new ArrayList<>();
+		for (Method method : type.getMethods()) {
+			if (method.isAnnotationPresent(TritonMethod.class)) {
+				list.add(method);
 			}
 		}
+		Collections.sort(list, new Comparator<Method>() {
+			@Override
+			public int compare(Method m1, Method m2) {
+				return m1.getAnnotation(TritonMethod.class).value()
+						.compareTo(m2.getAnnotation(TritonMethod.class).value());
+			}
+		});
+		return list;
+	}
+	
+	private int nextId(String name) {
+		TritonServerMethod current = map.get(name);
+		if (current != null) {
+			// replaced method keeps the id
+			return current.getId();
+		}
+		int id = methods.length;
+		if (id > MAX_METHOD_ID) {
+			throw new TritonRuntimeException(TritonErrors.server_error, "too many server methods to add " + name);
+		}
+		return id;
+	}
+	
+	private TritonServerMethod[] append(TritonServerMethod method) {
+		int id = method.getId();
+		TritonServerMethod[] copy = Arrays.copyOf(methods, Math.max(methods.length, id + 1));
+		copy[id] = method;
+		return copy;
 	}
 	
 	/**
@@ -46,4 +108,39 @@ public class TritonServerMethodMap {
 	public TritonServerMethod getMethod(String name) {
 		return map.get(name);
 	}
+	
+	/**
+	 * Get triton method from the id
+	 * @param id
+	 * @return
+	 */
+	public TritonServerMethod getMethod(int id) {
+		TritonServerMethod[] methods = this.methods;
+		if (id <= 0 || id >= methods.length) {
+			return null;
+		}
+		return methods[id];
+	}
+	
+	/**
+	 * Get methods in the order of the id
+	 * @return
+	 */
+	public List<TritonServerMethod> getMethods() {
+		TritonServerMethod[] methods = this.methods;
+		return Arrays.asList(methods).subList(1, methods.length);
+	}
+	
+	/**
+	 * Get method ids by the name in the order of the id
+	 * @return
+	 */
+	public Map<String, Integer> getMethodIds() {
+		TritonServerMethod[] methods = this.methods;
+		Map<String, Integer> ids = new LinkedHashMap<>();
+		for (int i = 1; i < methods.length; i++) {
+			ids.put(methods[i].getName(), i);
+		}
+		return ids;
+	}
 }
@@ -6,23 +6,48 @@ import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.Channels;
 
-import com.amebame.triton.protocol.TritonProtocolDecoder;
-import com.amebame.triton.protocol.TritonProtocolEncoder;
+import com.amebame.triton.config.TritonNettyConfiguration;
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.server.jmx.TritonChannelMonitor;
+import com.amebame.triton.server.protocol.TritonServerDecoder;
+import com.amebame.triton.server.protocol.TritonServerEncoder;
+import com.amebame.triton.service.TritonScheduler;
 
 public class TritonServerPipelineFactory implements ChannelPipelineFactory {
 	
 	private TritonServerHandler handler;
 	
+	private TritonScheduler scheduler;
+	
+	private TritonChannelMonitor monitor;
+	
+	private TritonNettyConfiguration config;
+	
 	@Inject
-	public TritonServerPipelineFactory(TritonServerHandler handler) {
+	public TritonServerPipelineFactory(
+			TritonServerHandler handler,
+			TritonScheduler scheduler,
+			TritonChannelMonitor monitor,
+			TritonServerConfiguration config) {
 		this.handler = handler;
+		this.scheduler = scheduler;
+		this.monitor = monitor;
+		this.config = config.getNetty();
 	}
 
 	@Override
 	public ChannelPipeline getPipeline() throws Exception {
 		ChannelPipeline pipeline = Channels.pipeline();
-		pipeline.addLast("encoder", new TritonProtocolEncoder());
-		pipeline.addLast("decoder", new TritonProtocolDecoder());
+		pipeline.addLast("monitor", monitor);
+		if (config.isAggregate()) {
+			// coalesce encoded replies
+			pipeline.addLast("aggregator", new TritonWriteAggregator(
+					scheduler,
+					config.getFlushBytes(),
+					config.getFlushDelay()));
+		}
+		pipeline.addLast("encoder", new TritonServerEncoder(config.getCompressThreshold()));
+		pipeline.addLast("decoder", new TritonServerDecoder(config.getMaxBodySize()));
 		pipeline.addLast("handler", handler);
 		return pipeline;
 	}
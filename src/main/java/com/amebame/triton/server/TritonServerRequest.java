@@ -0,0 +1,439 @@
+package com.amebame.triton.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.Channels;
+
+import com.amebame.triton.entity.TritonError;
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.amebame.triton.protocol.TritonMessage;
+import com.amebame.triton.server.protocol.TritonFrame;
+import com.amebame.triton.server.protocol.TritonServerFrame;
+import com.amebame.triton.server.protocol.TritonServerReply;
+import com.amebame.triton.server.util.ServerJson;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * {@link TritonServerRequest} reads the request envelope
+ * <code>{"name": ..., "body": ...}</code> with the streaming parser.
+ * The method is resolved from the name first, then the body is
+ * bound directly to the parameter type of the method.
+ * If the body appears before the name, it is skipped while resolving
+ * and the envelope is scanned again to bind the body, so the body is
+ * never materialized as the tree on the I/O thread.
+ * The envelope is parsed in place from the received frame and
+ * the frame is released once the body is bound.
+ */
+public class TritonServerRequest {
+
+	private static final String NAME = "name";
+	private static final String BODY = "body";
+	private static final String TIMEOUT = "timeout";
+
+	private Channel channel;
+
+	private TritonServerFrame frame;
+
+	// created only for methods which take the message
+	private TritonMessage message;
+
+	private TritonServerMethod method;
+
+	private Object body;
+
+	private JsonParser parser;
+
+	// parser points the body value
+	private boolean bodyReady;
+
+	// body appears before the name and should be scanned again
+	private boolean bodySkipped;
+
+	private TritonWriteAggregator aggregator;
+
+	// captures replies of the sub request. null for the client request
+	private TritonReplySink sink;
+
+	// nano time when the frame was received
+	private long received;
+
+	// nano time of the deadline. null if not specified
+	private Long deadline;
+
+	// head of the body captured for the slow log
+	private String bodySample;
+
+	public TritonServerRequest(Channel channel, TritonServerFrame frame) {
+		this(channel, frame, TritonWriteAggregator.get(channel));
+	}
+
+	private TritonServerRequest(Channel channel, TritonServerFrame frame, TritonWriteAggregator aggregator) {
+		this.channel = channel;
+		this.frame = frame;
+		this.aggregator = aggregator;
+		this.received = System.nanoTime();
+		setTimeout(frame.getTimeout());
+	}
+
+	/**
+	 * Create the request of the sub call which shares
+	 * the channel and the frame of this request.
+	 * Replies of the sub request are sent to the sink
+	 * instead of the channel.
+	 * @param method
+	 * @param body bound body of the sub call
+	 * @param sink
+	 * @return
+	 */
+	public TritonServerRequest subRequest(TritonServerMethod method, Object body, TritonReplySink sink) {
+		TritonServerRequest request = new TritonServerRequest(channel, frame, null);
+		request.method = method;
+		request.body = body;
+		request.deadline = deadline;
+		request.sink = sink;
+		return request;
+	}
+
+	/**
+	 * Mark the request in flight
+	 */
+	public void start() {
+		if (aggregator != null) {
+			aggregator.begin();
+		}
+	}
+
+	/**
+	 * Mark the request completed. Replies are flushed
+	 * if the channel has no other requests in flight.
+	 */
+	public void finish() {
+		if (aggregator != null) {
+			aggregator.end();
+		}
+	}
+
+	public Channel getChannel() {
+		return channel;
+	}
+
+	public TritonServerFrame getFrame() {
+		return frame;
+	}
+
+	/**
+	 * Get the request as {@link TritonMessage} with the bound body.
+	 * @return
+	 */
+	public TritonMessage getMessage() {
+		if (message == null) {
+			message = new TritonMessage(TritonMessage.COMMAND, frame.getCallId(), body);
+		}
+		return message;
+	}
+
+	public int getCallId() {
+		return frame.getCallId();
+	}
+
+	/**
+	 * Get the nano time when the request was received
+	 * @return
+	 */
+	public long getReceived() {
+		return received;
+	}
+
+	/**
+	 * Get the nano time of the deadline.
+	 * Returns null if the client did not give the timeout.
+	 * @return
+	 */
+	public Long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Check the request has exceeded the deadline
+	 * @return
+	 */
+	public boolean isExpired() {
+		return deadline != null && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * Set the deadline by the timeout relative to the arrival
+	 * @param timeout timeout in milliseconds. ignored if not positive
+	 */
+	private void setTimeout(long timeout) {
+		if (timeout > 0) {
+			deadline = received + TimeUnit.MILLISECONDS.toNanos(timeout);
+		}
+	}
+
+	/**
+	 * Get the flags to reply in the same body format as the request.
+	 * Replies may be compressed if the client accepts.
+	 * @return
+	 */
+	public int getReplyFlags() {
+		int flags = frame.getFlags() & TritonFrame.FLAG_ACCEPT_COMPRESSED;
+		if (frame.getFormat() == TritonFrame.FORMAT_SMILE) {
+			flags |= TritonFrame.FORMAT_SMILE;
+		}
+		// JSON for the unsupported formats
+		return flags;
+	}
+
+	/**
+	 * Get the resolved method
+	 * @return
+	 */
+	public TritonServerMethod getMethod() {
+		return method;
+	}
+
+	/**
+	 * Read the envelope until the method name is resolved.
+	 * The timeout in the envelope is read if it appears before the body.
+	 * @param context
+	 * @throws IOException
+	 */
+	public void resolve(TritonServerContext context) throws IOException {
+		if (frame.getMethodId() != 0) {
+			resolveById(context);
+			return;
+		}
+		if (frame.getBodySize() == 0) {
+			throw new TritonRuntimeException(TritonErrors.body_format, "body cannot be empty");
+		}
+		parser = frame.createParser(ServerJson.factory(frame.getFormat()));
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new TritonRuntimeException(TritonErrors.body_format, "body cannot be empty");
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if (NAME.equals(field)) {
+				String name = parser.getText();
+				method = context.getServerMethod(name);
+				if (method == null) {
+					throw new TritonRuntimeException(TritonErrors.body_format, "method " + name + " does not exist");
+				}
+				if (bodySkipped) {
+					return;
+				}
+			} else if (BODY.equals(field)) {
+				if (method != null) {
+					// bind later from the current position
+					bodyReady = true;
+					return;
+				}
+				// name has not been appeared yet. bound by scanning again
+				bodySkipped = true;
+				parser.skipChildren();
+			} else if (TIMEOUT.equals(field) && parser.getCurrentToken().isNumeric()) {
+				// header timeout takes precedence
+				if (deadline == null) {
+					setTimeout(parser.getLongValue());
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+		if (method == null) {
+			throw new TritonRuntimeException(TritonErrors.body_format, "name should be specified in a body");
+		}
+	}
+
+	/**
+	 * Resolve the method by the id in the header.
+	 * The frame has the bare body without the envelope.
+	 * @param context
+	 * @throws IOException
+	 */
+	private void resolveById(TritonServerContext context) throws IOException {
+		method = context.getServerMethod(frame.getMethodId());
+		if (method == null) {
+			throw new TritonRuntimeException(TritonErrors.body_format, "method id " + frame.getMethodId() + " does not exist");
+		}
+		if (frame.getBodySize() > 0) {
+			parser = frame.createParser(ServerJson.factory(frame.getFormat()));
+			bodyReady = parser.nextToken() != null;
+		}
+	}
+
+	/**
+	 * Capture the head of the body for the slow log.
+	 * This should be called before {@link #resolve(TritonServerContext)}
+	 * since the parser may move the reader index of the body.
+	 * Smile body is not captured since it is not readable.
+	 * @param limit maximum bytes to capture
+	 */
+	public void captureBody(int limit) {
+		ChannelBuffer buffer = frame.getBody();
+		if (buffer == null) {
+			return;
+		}
+		int size = buffer.readableBytes();
+		if (frame.getFormat() != TritonFrame.FORMAT_JSON) {
+			bodySample = "<smile " + size + " bytes>";
+			return;
+		}
+		int length = Math.min(limit, size);
+		bodySample = buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+		if (length < size) {
+			bodySample += "...";
+		}
+	}
+
+	/**
+	 * Get the captured head of the body
+	 * @return null if not captured
+	 */
+	public String getBodySample() {
+		return bodySample;
+	}
+
+	/**
+	 * Bind the body to the parameter of the resolved method.
+	 * The frame is released after binding.
+	 * @return
+	 * @throws IOException
+	 */
+	public Object bind() throws IOException {
+		try {
+			if (bodySkipped) {
+				seekBody();
+			}
+			if (bodyReady) {
+				body = method.readBody(parser);
+			} else {
+				body = method.emptyBody();
+			}
+			return body;
+		} finally {
+			release();
+		}
+	}
+
+	/**
+	 * Scan the envelope again from the head until the body value.
+	 * Tokens before the body are skipped without being materialized.
+	 * @throws IOException
+	 */
+	private void seekBody() throws IOException {
+		parser.close();
+		parser = frame.createParser(ServerJson.factory(frame.getFormat()));
+		parser.nextToken();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if (BODY.equals(field)) {
+				bodyReady = true;
+				return;
+			}
+			parser.skipChildren();
+		}
+	}
+
+	/**
+	 * Send the reply of the request
+	 * @param body
+	 * @return future of the write
+	 */
+	public ChannelFuture sendReply(Object body) {
+		if (sink != null) {
+			return sinkFuture(sink.reply(body));
+		}
+		int callId = getCallId();
+		if (callId > 0) {
+			return write(new TritonServerReply(TritonFrame.REPLY, callId, getReplyFlags(), body));
+		}
+		return Channels.succeededFuture(channel);
+	}
+
+	/**
+	 * Send the partial reply of the request. The reply is written
+	 * immediately without waiting for other replies of the channel.
+	 * The last reply should be sent by {@link #sendReply(Object)}.
+	 * @param body
+	 * @return future of the write
+	 */
+	public ChannelFuture sendPartial(Object body) {
+		if (sink != null) {
+			throw new TritonRuntimeException(TritonErrors.body_format, "partial reply is not supported in the sub call");
+		}
+		ChannelFuture future = write(new TritonServerReply(TritonFrame.REPLY, getCallId(),
+				getReplyFlags() | TritonFrame.FLAG_PARTIAL, body));
+		flush();
+		return future;
+	}
+
+	/**
+	 * Send the error of the request
+	 * @param errorCode
+	 * @param text
+	 */
+	public void sendError(int errorCode, String text) {
+		if (sink != null) {
+			sink.error(errorCode, text);
+			return;
+		}
+		int callId = getCallId();
+		if (callId > 0) {
+			write(new TritonServerReply(TritonFrame.ERROR, callId, getReplyFlags(), new TritonError(errorCode, text)));
+		}
+	}
+
+	/**
+	 * Get the future of the reply captured by the sink
+	 * @param accepted
+	 * @return
+	 */
+	private ChannelFuture sinkFuture(boolean accepted) {
+		if (accepted) {
+			return Channels.succeededFuture(channel);
+		}
+		return Channels.failedFuture(channel,
+				new TritonRuntimeException(TritonErrors.server_error, "sub call has already been completed"));
+	}
+
+	private ChannelFuture write(TritonServerReply reply) {
+		if (method != null) {
+			// record encode time of the method
+			reply.setStats(method.getStats());
+		}
+		return channel.write(reply);
+	}
+
+	/**
+	 * Flush replies written after the request has been finished
+	 */
+	public void flush() {
+		TritonWriteAggregator.flush(channel);
+	}
+
+	/**
+	 * Release the parser and the received frame
+	 */
+	public void release() {
+		if (parser != null) {
+			try {
+				parser.close();
+			} catch (IOException e) {
+				// nothing to do for in-memory body
+			}
+			parser = null;
+		}
+		frame.release();
+	}
+
+}
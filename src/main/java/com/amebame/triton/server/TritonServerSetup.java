@@ -4,6 +4,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.amebame.triton.service.TritonManagementMethods;
+import com.amebame.triton.service.multi.TritonMultiMethods;
 
 @Singleton
 public class TritonServerSetup {
@@ -11,8 +12,10 @@ public class TritonServerSetup {
 	@Inject
 	public TritonServerSetup(
 			TritonServerContext context,
-			TritonManagementMethods heartbeat) {
+			TritonManagementMethods heartbeat,
+			TritonMultiMethods multi) {
 		context.addServerMethod(heartbeat);
+		context.addServerMethod(multi);
 	}
 
 }
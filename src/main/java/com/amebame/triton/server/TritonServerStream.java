@@ -0,0 +1,77 @@
+package com.amebame.triton.server;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+
+/**
+ * {@link TritonServerStream} replies the request with the sequence
+ * of partial replies which have the same call id. The stream is
+ * ended by the last reply without the partial flag, or by the error.
+ * Writing blocks while the channel is not writable, so the method
+ * producing the stream slows down to the pace of the client.
+ * Streams should be written from the executor, not the I/O thread.
+ */
+public class TritonServerStream {
+	
+	// time to wait for the client to receive if the request has no deadline
+	private static final long WRITE_TIMEOUT = 30000L;
+	
+	private TritonServerRequest request;
+	
+	private boolean ended;
+	
+	public TritonServerStream(TritonServerRequest request) {
+		this.request = request;
+	}
+	
+	/**
+	 * Write the partial reply
+	 * @param chunk
+	 */
+	public void write(Object chunk) {
+		if (ended) {
+			throw new IllegalStateException("stream has been ended");
+		}
+		Channel channel = request.getChannel();
+		if (!channel.isConnected()) {
+			throw new TritonRuntimeException(TritonErrors.server_error, "client disconnected while streaming");
+		}
+		ChannelFuture future = request.sendPartial(chunk);
+		if (!channel.isWritable()) {
+			// wait until the client receives the chunk
+			long timeout = TritonDeadline.timeout(WRITE_TIMEOUT, TimeUnit.MILLISECONDS);
+			if (!future.awaitUninterruptibly(timeout)) {
+				throw new TritonDeadlineException("client did not receive the stream in " + timeout + " ms");
+			}
+			if (!future.isSuccess()) {
+				throw new TritonRuntimeException(TritonErrors.server_error, "failed to write the stream", future.getCause());
+			}
+		}
+	}
+	
+	/**
+	 * End the stream with the last reply
+	 * @param chunk
+	 */
+	public void end(Object chunk) {
+		if (ended) {
+			return;
+		}
+		ended = true;
+		request.sendReply(chunk);
+	}
+	
+	/**
+	 * Check the stream has been ended
+	 * @return
+	 */
+	public boolean isEnded() {
+		return ended;
+	}
+
+}
@@ -0,0 +1,177 @@
+package com.amebame.triton.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+
+import com.amebame.triton.service.TritonScheduler;
+
+/**
+ * {@link TritonWriteAggregator} coalesces encoded replies of the channel
+ * and writes them at once. Replies are buffered only while the channel
+ * has requests in flight, and are flushed when
+ * <ul>
+ * <li>buffered bytes reach the threshold</li>
+ * <li>flush delay elapsed after the first buffered reply</li>
+ * <li>the last request in flight is completed</li>
+ * </ul>
+ * so single calls are written immediately without added latency.
+ * The aggregator holds the state of the channel and cannot be shared.
+ */
+public class TritonWriteAggregator extends SimpleChannelDownstreamHandler {
+
+	private TritonScheduler scheduler;
+
+	private int flushBytes;
+
+	private long flushDelay;
+
+	private ChannelHandlerContext ctx;
+
+	private List<MessageEvent> pending;
+
+	private int pendingBytes;
+
+	private boolean scheduled;
+
+	private AtomicInteger inflight;
+
+	private Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	public TritonWriteAggregator(TritonScheduler scheduler, int flushBytes, long flushDelay) {
+		this.scheduler = scheduler;
+		this.flushBytes = flushBytes;
+		this.flushDelay = flushDelay;
+		this.pending = new ArrayList<>();
+		this.inflight = new AtomicInteger();
+	}
+
+	/**
+	 * Mark the request of the channel started
+	 */
+	public void begin() {
+		inflight.incrementAndGet();
+	}
+
+	/**
+	 * Mark the request of the channel completed.
+	 * Flush buffered replies if no requests are in flight.
+	 */
+	public void end() {
+		if (inflight.decrementAndGet() <= 0) {
+			flush();
+		}
+	}
+
+	@Override
+	public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+		if (!(e.getMessage() instanceof ChannelBuffer)) {
+			super.writeRequested(ctx, e);
+			return;
+		}
+		synchronized (this) {
+			this.ctx = ctx;
+			if (inflight.get() <= 0 && pending.isEmpty()) {
+				// nothing to wait for
+				ctx.sendDownstream(e);
+				return;
+			}
+			pending.add(e);
+			pendingBytes += ((ChannelBuffer) e.getMessage()).readableBytes();
+			if (pendingBytes >= flushBytes) {
+				flush();
+			} else if (!scheduled) {
+				scheduled = true;
+				scheduler.schedule(flushTask, flushDelay);
+			}
+		}
+	}
+
+	/**
+	 * Write buffered replies as single buffer
+	 */
+	public synchronized void flush() {
+		scheduled = false;
+		int size = pending.size();
+		if (size == 0) {
+			return;
+		}
+		if (size == 1) {
+			ctx.sendDownstream(pending.get(0));
+		} else {
+			ChannelBuffer[] buffers = new ChannelBuffer[size];
+			final ChannelFuture[] futures = new ChannelFuture[size];
+			for (int i = 0; i < size; i++) {
+				MessageEvent event = pending.get(i);
+				buffers[i] = (ChannelBuffer) event.getMessage();
+				futures[i] = event.getFuture();
+			}
+			ChannelFuture future = Channels.future(ctx.getChannel());
+			future.addListener(new ChannelFutureListener() {
+				@Override
+				public void operationComplete(ChannelFuture future) throws Exception {
+					// notify the result to each reply
+					for (ChannelFuture each : futures) {
+						if (future.isSuccess()) {
+							each.setSuccess();
+						} else {
+							each.setFailure(future.getCause());
+						}
+					}
+				}
+			});
+			Channels.write(ctx, future, ChannelBuffers.wrappedBuffer(buffers));
+		}
+		pending.clear();
+		pendingBytes = 0;
+	}
+
+	@Override
+	public void closeRequested(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		flush();
+		super.closeRequested(ctx, e);
+	}
+
+	@Override
+	public void disconnectRequested(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		flush();
+		super.disconnectRequested(ctx, e);
+	}
+
+	/**
+	 * Get the aggregator of the channel. Returns null if not installed.
+	 * @param channel
+	 * @return
+	 */
+	public static TritonWriteAggregator get(Channel channel) {
+		return channel.getPipeline().get(TritonWriteAggregator.class);
+	}
+
+	/**
+	 * Flush buffered replies of the channel
+	 * @param channel
+	 */
+	public static void flush(Channel channel) {
+		TritonWriteAggregator aggregator = get(channel);
+		if (aggregator != null) {
+			aggregator.flush();
+		}
+	}
+
+}
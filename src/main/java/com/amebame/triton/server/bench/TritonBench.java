@@ -0,0 +1,201 @@
+package com.amebame.triton.server.bench;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.channel.ChannelFactory;
+import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
+
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.server.TritonServer;
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.stats.TritonHistogramSnapshot;
+import com.amebame.triton.util.NamedThreadFactory;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+
+/**
+ * {@link TritonBench} drives the server over the framed protocol and
+ * reports the throughput and latency percentiles.
+ * With <code>--rate</code>, requests are sent at the fixed rate (open loop).
+ * Otherwise each connection sends requests as fast as replies come back
+ * (closed loop). With <code>--stub</code>, the server is started in
+ * process with memcached methods replaced by the in-memory stub.
+ */
+public class TritonBench {
+
+	@Parameter(names = {"--host"}, description="server host")
+	private String host = "localhost";
+
+	@Parameter(names = {"-p","--port"}, description="server port")
+	private int port = 4848;
+
+	@Parameter(names = {"-c","--connections"}, description="number of connections")
+	private int connections = 4;
+
+	@Parameter(names = {"-d","--depth"}, description="requests in flight per connection")
+	private int depth = 1;
+
+	@Parameter(names = {"-m","--mix"}, description="methods and weights such as memcached.get:9,memcached.set:1")
+	private String mix = "memcached.get:9,memcached.set:1";
+
+	@Parameter(names = {"-s","--size"}, description="comma separated payload sizes in bytes")
+	private String sizes = "100";
+
+	@Parameter(names = {"-k","--keys"}, description="number of distinct keys")
+	private int keys = 10000;
+
+	@Parameter(names = {"--cluster"}, description="cluster name of requests")
+	private String cluster = "default";
+
+	@Parameter(names = {"-r","--rate"}, description="requests per second of the open loop. 0 for the closed loop")
+	private int rate = 0;
+
+	@Parameter(names = {"-t","--duration"}, description="seconds to measure")
+	private int duration = 30;
+
+	@Parameter(names = {"-w","--warmup"}, description="seconds to warm up")
+	private int warmup = 5;
+
+	@Parameter(names = {"--smile"}, description="encode requests with Smile")
+	private boolean smile = false;
+
+	@Parameter(names = {"--stub"}, description="start the server in process with stub backends")
+	private boolean stub = false;
+
+	@Parameter(names = {"--stub-delay"}, description="micros to wait in each stub call")
+	private int stubDelay = 0;
+
+	@Parameter(names = {"-h","--help"}, description="print this help")
+	private boolean help = false;
+
+	private volatile boolean running;
+
+	private volatile TritonBenchRecorder recorder;
+
+	private TritonServer server;
+
+	public TritonBench() {
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Get the recorder of the current phase
+	 * @return
+	 */
+	public TritonBenchRecorder getRecorder() {
+		return recorder;
+	}
+
+	public void run() throws InterruptedException {
+		if (stub) {
+			startStub();
+		}
+		TritonBenchWorkload workload = new TritonBenchWorkload(
+				mix, TritonBenchWorkload.parseSizes(sizes), keys, cluster, smile);
+		ChannelFactory factory = new NioClientSocketChannelFactory(
+				Executors.newCachedThreadPool(new NamedThreadFactory("bench-boss-")),
+				Executors.newCachedThreadPool(new NamedThreadFactory("bench-io-")));
+		// interval of each connection to send at the rate
+		long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(connections) / rate : 0L;
+		InetSocketAddress address = new InetSocketAddress(host, port);
+		List<TritonBenchConnection> list = new ArrayList<>();
+		List<Thread> senders = new ArrayList<>();
+		try {
+			for (int i = 0; i < connections; i++) {
+				TritonBenchConnection connection = new TritonBenchConnection(this, workload, depth, interval);
+				connection.connect(factory, address);
+				list.add(connection);
+				Thread sender = new Thread(connection, "bench-sender-" + i);
+				sender.setDaemon(true);
+				senders.add(sender);
+			}
+			System.out.printf("%s loop, %d connections, depth %d, %s%n",
+					rate > 0 ? "open" : "closed", connections, depth,
+					rate > 0 ? rate + " req/s" : "no rate limit");
+			recorder = new TritonBenchRecorder(rate > 0, 0L);
+			running = true;
+			for (Thread sender : senders) {
+				sender.start();
+			}
+			// warmup
+			TimeUnit.SECONDS.sleep(warmup);
+			TritonBenchRecorder warmed = recorder;
+			warmed.stop();
+			// the closed loop corrects latencies by the mean of the warmup
+			long expected = rate > 0 ? 0L : warmed.getServiceLatency().getMean() * 1000L;
+			recorder = new TritonBenchRecorder(rate > 0, expected);
+			TimeUnit.SECONDS.sleep(duration);
+			running = false;
+			TritonBenchRecorder measured = recorder;
+			measured.stop();
+			for (TritonBenchConnection connection : list) {
+				connection.drain(5000L);
+			}
+			report(measured);
+		} finally {
+			running = false;
+			for (TritonBenchConnection connection : list) {
+				connection.close();
+			}
+			factory.releaseExternalResources();
+			stopStub();
+		}
+	}
+
+	private void startStub() {
+		TritonServerConfiguration config = new TritonServerConfiguration();
+		config.setJmx(false);
+		server = new TritonServer();
+		server.setPort(port);
+		server.setConfig(config);
+		server.start();
+		if (server.getInjector() == null) {
+			throw new IllegalStateException("failed to start the stub server");
+		}
+		TritonServerContext context = server.getInjector().getInstance(TritonServerContext.class);
+		context.addServerMethod(new TritonBenchStubMethods(TimeUnit.MICROSECONDS.toNanos(stubDelay)));
+		host = "localhost";
+	}
+
+	private void stopStub() {
+		if (server == null) {
+			return;
+		}
+		server.shutdown();
+	}
+
+	private void report(TritonBenchRecorder recorder) {
+		System.out.printf("requests   : %d%n", recorder.getCount());
+		System.out.printf("errors     : %d%n", recorder.getErrors());
+		System.out.printf("throughput : %.1f req/s%n", recorder.getThroughput());
+		System.out.printf("%-12s %8s %8s %8s %8s %8s %8s%n", "latency(us)", "mean", "p50", "p90", "p99", "p99.9", "max");
+		report("service", recorder.getServiceLatency());
+		report("corrected", recorder.getCorrectedLatency());
+	}
+
+	private static void report(String name, TritonHistogramSnapshot snapshot) {
+		System.out.printf("%-12s %8d %8d %8d %8d %8d %8d%n", name,
+				snapshot.getMean(), snapshot.getP50(), snapshot.getP90(),
+				snapshot.getP99(), snapshot.getP999(), snapshot.getMax());
+	}
+
+	public static void main(String[] args) throws Exception {
+		TritonBench bench = new TritonBench();
+		JCommander cmd = new JCommander(bench, args);
+		if (bench.help) {
+			cmd.usage();
+			return;
+		}
+		bench.run();
+		// stop threads of the stub server
+		System.exit(0);
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.amebame.triton.server.bench;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jboss.netty.bootstrap.ClientBootstrap;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFactory;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.ExceptionEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.amebame.triton.server.protocol.TritonFrame;
+
+/**
+ * {@link TritonBenchConnection} sends requests on a single connection.
+ * Requests are pipelined up to the depth, and the sender waits for
+ * a reply when all slots are in use.
+ * In the open loop, requests are scheduled at the fixed interval
+ * regardless of replies. In the closed loop, the next request is sent
+ * as soon as a slot is freed.
+ */
+public class TritonBenchConnection implements Runnable {
+
+	private static final Logger log = LogManager.getLogger(TritonBenchConnection.class);
+
+	private TritonBench bench;
+
+	private TritonBenchWorkload workload;
+
+	private Channel channel;
+
+	private Semaphore slots;
+
+	private int depth;
+
+	// scheduled and sent nano time of requests in flight by call id
+	private ConcurrentMap<Integer, long[]> pending;
+
+	// interval of the open loop in nanos. 0 for the closed loop
+	private long interval;
+
+	private int callId;
+
+	public TritonBenchConnection(TritonBench bench, TritonBenchWorkload workload, int depth, long interval) {
+		this.bench = bench;
+		this.workload = workload;
+		this.depth = depth;
+		this.slots = new Semaphore(depth);
+		this.pending = new ConcurrentHashMap<>();
+		this.interval = interval;
+	}
+
+	/**
+	 * Connect to the server
+	 * @param factory
+	 * @param address
+	 */
+	public void connect(ChannelFactory factory, InetSocketAddress address) {
+		ClientBootstrap bootstrap = new ClientBootstrap(factory);
+		bootstrap.setOption("tcpNoDelay", true);
+		bootstrap.setPipeline(Channels.pipeline(new ReplyDecoder(), new ReplyHandler()));
+		ChannelFuture future = bootstrap.connect(address).awaitUninterruptibly();
+		if (!future.isSuccess()) {
+			throw new TritonRuntimeException(TritonErrors.server_error, "failed to connect to " + address, future.getCause());
+		}
+		channel = future.getChannel();
+	}
+
+	@Override
+	public void run() {
+		long next = System.nanoTime();
+		while (bench.isRunning() && channel.isConnected()) {
+			long scheduled = 0L;
+			if (interval > 0) {
+				// wait until the scheduled time
+				next += interval;
+				long wait = next - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				scheduled = next;
+			}
+			try {
+				while (!slots.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+					if (!bench.isRunning() || !channel.isConnected()) {
+						return;
+					}
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+			send(scheduled);
+		}
+	}
+
+	private void send(long scheduled) {
+		byte[] body = workload.next();
+		int id = nextCallId();
+		ChannelBuffer header = ChannelBuffers.buffer(TritonFrame.HEADER_SIZE);
+		header.writeShort(TritonFrame.COMMAND);
+		header.writeInt(body.length);
+		header.writeInt(id);
+		header.writeByte(workload.getFlags());
+		header.writeZero(TritonFrame.RESERVED_SIZE - 1);
+		pending.put(id, new long[] { scheduled, System.nanoTime() });
+		channel.write(ChannelBuffers.wrappedBuffer(header, ChannelBuffers.wrappedBuffer(body)));
+	}
+
+	private int nextCallId() {
+		// call id should be positive to get the reply
+		callId = callId == Integer.MAX_VALUE ? 1 : callId + 1;
+		return callId;
+	}
+
+	/**
+	 * Wait for replies of requests in flight
+	 * @param timeout
+	 * @return true if all replies are received
+	 */
+	public boolean drain(long timeout) {
+		try {
+			if (slots.tryAcquire(depth, timeout, TimeUnit.MILLISECONDS)) {
+				slots.release(depth);
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	/**
+	 * Close the connection
+	 */
+	public void close() {
+		if (channel != null) {
+			channel.close().awaitUninterruptibly();
+		}
+	}
+
+	/**
+	 * Decode reply frames. Bodies are skipped without parsing.
+	 */
+	private static class ReplyDecoder extends FrameDecoder {
+		@Override
+		protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+			if (buffer.readableBytes() < TritonFrame.HEADER_SIZE) {
+				return null;
+			}
+			int index = buffer.readerIndex();
+			int size = buffer.getInt(index + TritonFrame.BODY_SIZE_OFFSET);
+			if (buffer.readableBytes() < TritonFrame.HEADER_SIZE + size) {
+				return null;
+			}
+			short type = buffer.getShort(index + TritonFrame.TYPE_OFFSET);
+			int callId = buffer.getInt(index + TritonFrame.CALL_ID_OFFSET);
+			buffer.skipBytes(TritonFrame.HEADER_SIZE + size);
+			return new long[] { type, callId };
+		}
+	}
+
+	private class ReplyHandler extends SimpleChannelUpstreamHandler {
+
+		@Override
+		public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+			long received = System.nanoTime();
+			long[] reply = (long[]) e.getMessage();
+			long[] times = pending.remove((int) reply[1]);
+			if (times == null) {
+				// reply of unknown call
+				return;
+			}
+			bench.getRecorder().record(times[0], times[1], received, reply[0] != TritonFrame.REPLY);
+			slots.release();
+		}
+
+		@Override
+		public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+			// release slots of lost requests
+			slots.release(pending.size());
+			pending.clear();
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
+			log.warn("connection error " + e.getCause().getMessage(), e.getCause());
+			e.getChannel().close();
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.amebame.triton.server.bench;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amebame.triton.server.stats.TritonHistogram;
+import com.amebame.triton.server.stats.TritonHistogramSnapshot;
+
+/**
+ * {@link TritonBenchRecorder} records results of a phase of the benchmark.
+ * Each request records two latencies.
+ * <ul>
+ * <li>service latency from sending the request to receiving the reply</li>
+ * <li>corrected latency which includes the time waiting to be sent</li>
+ * </ul>
+ * In the open loop, the corrected latency is measured from the time
+ * when the request was scheduled to be sent. In the closed loop, requests
+ * which could not be sent while waiting for a slow reply are recorded
+ * by the expected interval between requests.
+ */
+public class TritonBenchRecorder {
+
+	private TritonHistogram service;
+
+	private TritonHistogram corrected;
+
+	private AtomicLong errors;
+
+	private boolean openLoop;
+
+	// expected interval of the closed loop in nanos
+	private long expectedInterval;
+
+	private long started;
+
+	// elapsed nano time of the stopped phase
+	private long elapsed;
+
+	public TritonBenchRecorder(boolean openLoop, long expectedInterval) {
+		this.openLoop = openLoop;
+		this.service = new TritonHistogram();
+		this.corrected = new TritonHistogram();
+		this.errors = new AtomicLong();
+		this.expectedInterval = expectedInterval;
+		this.started = System.nanoTime();
+	}
+
+	/**
+	 * Record the reply
+	 * @param scheduled nano time when the request was scheduled
+	 * @param sent nano time when the request was sent
+	 * @param received nano time when the reply was received
+	 * @param error true if the reply is an error
+	 */
+	public void record(long scheduled, long sent, long received, boolean error) {
+		long latency = received - sent;
+		service.record(latency);
+		if (openLoop) {
+			corrected.record(received - scheduled);
+		} else {
+			corrected.recordCorrected(latency, expectedInterval);
+		}
+		if (error) {
+			errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Stop recording the phase
+	 */
+	public void stop() {
+		elapsed = System.nanoTime() - started;
+	}
+
+	/**
+	 * Get the number of received replies
+	 * @return
+	 */
+	public long getCount() {
+		return service.snapshot(1L).getCount();
+	}
+
+	public long getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * Get the elapsed nano time of the phase
+	 * @return
+	 */
+	public long getElapsed() {
+		return elapsed > 0 ? elapsed : System.nanoTime() - started;
+	}
+
+	/**
+	 * Get received replies per second
+	 * @return
+	 */
+	public double getThroughput() {
+		return getCount() * 1000000000.0 / Math.max(1L, getElapsed());
+	}
+
+	/**
+	 * Get service latencies in micros
+	 * @return
+	 */
+	public TritonHistogramSnapshot getServiceLatency() {
+		return service.snapshot(1000L);
+	}
+
+	/**
+	 * Get corrected latencies in micros
+	 * @return
+	 */
+	public TritonHistogramSnapshot getCorrectedLatency() {
+		return corrected.snapshot(1000L);
+	}
+
+}
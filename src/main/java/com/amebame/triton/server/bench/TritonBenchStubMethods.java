@@ -0,0 +1,76 @@
+package com.amebame.triton.server.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.LockSupport;
+
+import com.amebame.triton.client.memcached.method.DeleteCache;
+import com.amebame.triton.client.memcached.method.GetCache;
+import com.amebame.triton.client.memcached.method.SetCache;
+import com.amebame.triton.server.TritonMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * {@link TritonBenchStubMethods} replaces memcached methods with
+ * the in-memory map, so the overhead of the server can be measured
+ * without backends. Methods run on the worker executor as the real
+ * methods do, and can wait for the delay to emulate the backend.
+ */
+public class TritonBenchStubMethods {
+
+	private ConcurrentMap<String, JsonNode> values;
+
+	private long delay;
+
+	/**
+	 * Create stub methods
+	 * @param delay nano time to wait in each call
+	 */
+	public TritonBenchStubMethods(long delay) {
+		this.values = new ConcurrentHashMap<>();
+		this.delay = delay;
+	}
+
+	@TritonMethod("memcached.get")
+	public Object get(GetCache data) {
+		backend();
+		if (data.getKey() != null) {
+			return values.get(data.getKey());
+		}
+		Map<String, JsonNode> map = new HashMap<>();
+		for (String key : data.getKeys()) {
+			JsonNode value = values.get(key);
+			if (value != null) {
+				map.put(key, value);
+			}
+		}
+		return map;
+	}
+
+	@TritonMethod("memcached.set")
+	public boolean set(SetCache data) {
+		backend();
+		if (data.getKey() != null && data.getValue() != null) {
+			values.put(data.getKey(), data.getValue());
+		}
+		return true;
+	}
+
+	@TritonMethod("memcached.delete")
+	public boolean delete(DeleteCache data) {
+		backend();
+		for (String key : data.getKeys()) {
+			values.remove(key);
+		}
+		return true;
+	}
+
+	private void backend() {
+		if (delay > 0) {
+			LockSupport.parkNanos(delay);
+		}
+	}
+
+}
@@ -0,0 +1,193 @@
+package com.amebame.triton.server.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.amebame.triton.server.protocol.TritonFrame;
+import com.amebame.triton.server.util.ServerJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * {@link TritonBenchWorkload} generates request bodies by the method mix
+ * and payload sizes. Bodies are encoded in advance with random keys,
+ * so sending a request does not build JSON on the client.
+ */
+public class TritonBenchWorkload {
+
+	// encoded bodies for each method
+	private static final int VARIANTS = 256;
+
+	private static final String CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+	private String[] names;
+
+	// cumulative weights of the methods
+	private int[] weights;
+
+	private int totalWeight;
+
+	// bodies[method][variant]
+	private byte[][][] bodies;
+
+	private int flags;
+
+	/**
+	 * Create the workload
+	 * @param mix method names and weights such as "memcached.get:9,memcached.set:1"
+	 * @param sizes payload sizes in bytes
+	 * @param keys number of distinct keys
+	 * @param cluster cluster name of the requests
+	 * @param smile encode bodies with Smile
+	 */
+	public TritonBenchWorkload(String mix, int[] sizes, int keys, String cluster, boolean smile) {
+		Map<String, Integer> methods = parseMix(mix);
+		int size = methods.size();
+		this.names = new String[size];
+		this.weights = new int[size];
+		this.bodies = new byte[size][][];
+		this.flags = smile ? TritonFrame.FORMAT_SMILE : TritonFrame.FORMAT_JSON;
+		ObjectMapper mapper = ServerJson.mapper(flags);
+		// same bodies for each run
+		Random random = new Random(1L);
+		int index = 0;
+		for (Map.Entry<String, Integer> entry : methods.entrySet()) {
+			totalWeight += entry.getValue();
+			names[index] = entry.getKey();
+			weights[index] = totalWeight;
+			bodies[index] = new byte[VARIANTS][];
+			for (int i = 0; i < VARIANTS; i++) {
+				String key = "bench-" + random.nextInt(Math.max(1, keys));
+				String payload = payload(random, sizes[i % sizes.length]);
+				bodies[index][i] = encode(mapper, entry.getKey(), body(entry.getKey(), cluster, key, payload));
+			}
+			index++;
+		}
+	}
+
+	/**
+	 * Get the flags of the request frames
+	 * @return
+	 */
+	public int getFlags() {
+		return flags;
+	}
+
+	/**
+	 * Get the encoded body of the next request
+	 * @return
+	 */
+	public byte[] next() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int method = 0;
+		if (names.length > 1) {
+			int weight = random.nextInt(totalWeight);
+			while (weights[method] <= weight) {
+				method++;
+			}
+		}
+		return bodies[method][random.nextInt(VARIANTS)];
+	}
+
+	/**
+	 * Build the body of the method.
+	 * Memcached methods get the body of the real method, others get key and value.
+	 * @param name
+	 * @param cluster
+	 * @param key
+	 * @param payload
+	 * @return
+	 */
+	private static ObjectNode body(String name, String cluster, String key, String payload) {
+		ObjectNode body = ServerJson.mapper().createObjectNode();
+		body.put("cluster", cluster);
+		if (name.endsWith(".delete")) {
+			body.putArray("keys").add(key);
+		} else {
+			body.put("key", key);
+		}
+		if (!name.endsWith(".get") && !name.endsWith(".delete")) {
+			body.put("value", payload);
+		}
+		return body;
+	}
+
+	private static byte[] encode(ObjectMapper mapper, String name, ObjectNode body) {
+		ObjectNode envelope = mapper.createObjectNode();
+		envelope.put("name", name);
+		envelope.put("body", body);
+		try {
+			return mapper.writeValueAsBytes(envelope);
+		} catch (IOException e) {
+			throw new TritonRuntimeException(TritonErrors.body_format, e.getMessage(), e);
+		}
+	}
+
+	private static String payload(Random random, int size) {
+		char[] chars = new char[size];
+		for (int i = 0; i < size; i++) {
+			chars[i] = CHARS.charAt(random.nextInt(CHARS.length()));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Parse the method mix such as "memcached.get:9,memcached.set:1".
+	 * Weight is 1 if omitted.
+	 * @param mix
+	 * @return
+	 */
+	static Map<String, Integer> parseMix(String mix) {
+		Map<String, Integer> methods = new LinkedHashMap<>();
+		for (String entry : mix.split(",")) {
+			entry = entry.trim();
+			if (entry.isEmpty()) {
+				continue;
+			}
+			int colon = entry.lastIndexOf(':');
+			if (colon < 0) {
+				methods.put(entry, 1);
+				continue;
+			}
+			int weight = Integer.parseInt(entry.substring(colon + 1).trim());
+			if (weight > 0) {
+				methods.put(entry.substring(0, colon).trim(), weight);
+			}
+		}
+		if (methods.isEmpty()) {
+			throw new IllegalArgumentException("no methods in the mix " + mix);
+		}
+		return methods;
+	}
+
+	/**
+	 * Parse comma separated sizes
+	 * @param sizes
+	 * @return
+	 */
+	static int[] parseSizes(String sizes) {
+		List<Integer> list = new ArrayList<>();
+		for (String size : sizes.split(",")) {
+			size = size.trim();
+			if (!size.isEmpty()) {
+				list.add(Integer.parseInt(size));
+			}
+		}
+		if (list.isEmpty()) {
+			throw new IllegalArgumentException("no payload sizes " + sizes);
+		}
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+}
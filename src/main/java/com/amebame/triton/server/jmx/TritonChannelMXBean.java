@@ -0,0 +1,22 @@
+package com.amebame.triton.server.jmx;
+
+/**
+ * Health of the client channels and netty threads
+ */
+public interface TritonChannelMXBean {
+	
+	int getOpenChannels();
+	
+	long getTotalChannels();
+	
+	long getBytesIn();
+	
+	long getBytesOut();
+	
+	int getBossThreads();
+	
+	int getIoThreads();
+	
+	int getActiveIoThreads();
+
+}
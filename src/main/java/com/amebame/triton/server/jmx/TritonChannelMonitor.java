@@ -0,0 +1,102 @@
+package com.amebame.triton.server.jmx;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.ChannelHandler.Sharable;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.WriteCompletionEvent;
+
+/**
+ * {@link TritonChannelMonitor} is placed at the head of the pipeline
+ * and counts channels and bytes read and written.
+ * It also reports the thread pools of netty boss and I/O threads.
+ */
+@Sharable
+public class TritonChannelMonitor extends SimpleChannelUpstreamHandler implements TritonChannelMXBean {
+	
+	private ThreadPoolExecutor bossExecutor;
+	
+	private ThreadPoolExecutor ioExecutor;
+	
+	private AtomicInteger openChannels = new AtomicInteger();
+	
+	private AtomicLong totalChannels = new AtomicLong();
+	
+	private AtomicLong bytesIn = new AtomicLong();
+	
+	private AtomicLong bytesOut = new AtomicLong();
+	
+	public TritonChannelMonitor(ThreadPoolExecutor bossExecutor, ThreadPoolExecutor ioExecutor) {
+		this.bossExecutor = bossExecutor;
+		this.ioExecutor = ioExecutor;
+	}
+	
+	@Override
+	public void channelOpen(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		openChannels.incrementAndGet();
+		totalChannels.incrementAndGet();
+		super.channelOpen(ctx, e);
+	}
+	
+	@Override
+	public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+		openChannels.decrementAndGet();
+		super.channelClosed(ctx, e);
+	}
+	
+	@Override
+	public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+		if (e.getMessage() instanceof ChannelBuffer) {
+			bytesIn.addAndGet(((ChannelBuffer) e.getMessage()).readableBytes());
+		}
+		super.messageReceived(ctx, e);
+	}
+	
+	@Override
+	public void writeComplete(ChannelHandlerContext ctx, WriteCompletionEvent e) throws Exception {
+		bytesOut.addAndGet(e.getWrittenAmount());
+		super.writeComplete(ctx, e);
+	}
+	
+	@Override
+	public int getOpenChannels() {
+		return openChannels.get();
+	}
+	
+	@Override
+	public long getTotalChannels() {
+		return totalChannels.get();
+	}
+	
+	@Override
+	public long getBytesIn() {
+		return bytesIn.get();
+	}
+	
+	@Override
+	public long getBytesOut() {
+		return bytesOut.get();
+	}
+	
+	@Override
+	public int getBossThreads() {
+		return bossExecutor.getPoolSize();
+	}
+	
+	@Override
+	public int getIoThreads() {
+		return ioExecutor.getPoolSize();
+	}
+	
+	@Override
+	public int getActiveIoThreads() {
+		return ioExecutor.getActiveCount();
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.amebame.triton.server.jmx;
+
+/**
+ * Health of the worker executor
+ */
+public interface TritonExecutorMXBean {
+	
+	String getName();
+	
+	int getQueueSize();
+	
+	int getQueueCapacity();
+	
+	int getActiveThreads();
+	
+	int getIdleThreads();
+	
+	int getPoolSize();
+	
+	int getMaxPoolSize();
+	
+	long getCompletedTasks();
+	
+	long getRejectedTasks();
+	
+	int getLanes();
+
+}
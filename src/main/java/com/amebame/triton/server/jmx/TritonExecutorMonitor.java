@@ -0,0 +1,70 @@
+package com.amebame.triton.server.jmx;
+
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.TritonServerExecutor;
+
+/**
+ * MBean of the executor in {@link TritonServerContext}
+ */
+public class TritonExecutorMonitor implements TritonExecutorMXBean {
+	
+	private TritonServerContext context;
+	
+	private TritonServerExecutor executor;
+	
+	public TritonExecutorMonitor(TritonServerContext context, TritonServerExecutor executor) {
+		this.context = context;
+		this.executor = executor;
+	}
+	
+	@Override
+	public String getName() {
+		return executor.getName();
+	}
+	
+	@Override
+	public int getQueueSize() {
+		return executor.getQueueSize();
+	}
+	
+	@Override
+	public int getQueueCapacity() {
+		return executor.getStatus().getQueueCapacity();
+	}
+	
+	@Override
+	public int getActiveThreads() {
+		return executor.getActiveCount();
+	}
+	
+	@Override
+	public int getIdleThreads() {
+		return Math.max(0, getPoolSize() - getActiveThreads());
+	}
+	
+	@Override
+	public int getPoolSize() {
+		return executor.getStatus().getPool();
+	}
+	
+	@Override
+	public int getMaxPoolSize() {
+		return executor.getStatus().getMax();
+	}
+	
+	@Override
+	public long getCompletedTasks() {
+		return executor.getStatus().getCompleted();
+	}
+	
+	@Override
+	public long getRejectedTasks() {
+		return executor.getRejectedCount();
+	}
+	
+	@Override
+	public int getLanes() {
+		return context.getLaneCount(executor);
+	}
+
+}
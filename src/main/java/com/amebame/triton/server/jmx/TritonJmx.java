@@ -0,0 +1,92 @@
+package com.amebame.triton.server.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.server.TritonCleaner;
+
+/**
+ * {@link TritonJmx} registers MBeans of the server to the platform
+ * MBean server under the <code>com.amebame.triton</code> domain.
+ * Registered MBeans are unregistered on cleaning.
+ * Nothing is registered if JMX is disabled by the configuration.
+ */
+@Singleton
+public class TritonJmx implements TritonCleaner {
+	
+	private static final Logger log = LogManager.getLogger(TritonJmx.class);
+	
+	public static final String DOMAIN = "com.amebame.triton";
+	
+	private boolean enabled;
+	
+	private MBeanServer server;
+	
+	private List<ObjectName> names;
+	
+	@Inject
+	public TritonJmx(TritonServerConfiguration config) {
+		this.enabled = config.isJmx();
+		this.names = new CopyOnWriteArrayList<>();
+		if (enabled) {
+			this.server = ManagementFactory.getPlatformMBeanServer();
+		}
+	}
+	
+	/**
+	 * Register the MBean with the properties of the name
+	 * such as <code>type=Executor,name=worker</code>.
+	 * Failures are logged and ignored.
+	 * @param properties
+	 * @param mbean
+	 */
+	public void register(String properties, Object mbean) {
+		if (!enabled) {
+			return;
+		}
+		try {
+			ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(mbean, name);
+			names.add(name);
+			log.debug("registered mbean {}", name);
+		} catch (JMException e) {
+			log.warn("failed to register mbean " + properties, e);
+		}
+	}
+	
+	/**
+	 * Quote the value of the name property
+	 * @param value
+	 * @return
+	 */
+	public static String quote(String value) {
+		return ObjectName.quote(value);
+	}
+	
+	@Override
+	public void clean() {
+		for (ObjectName name : names) {
+			try {
+				server.unregisterMBean(name);
+			} catch (JMException e) {
+				log.debug("failed to unregister mbean {}", name);
+			}
+		}
+		names.clear();
+	}
+
+}
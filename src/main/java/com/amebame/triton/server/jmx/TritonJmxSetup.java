@@ -0,0 +1,43 @@
+package com.amebame.triton.server.jmx;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.amebame.triton.server.TritonServerCleaner;
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.TritonServerExecutor;
+import com.amebame.triton.service.lock.LockManager;
+import com.amebame.triton.service.lock.LockMonitor;
+
+/**
+ * Register MBeans of the server.
+ * MBeans of cassandra and memcached pools are registered
+ * by their clients when the pools are created.
+ */
+@Singleton
+public class TritonJmxSetup {
+	
+	@Inject private TritonJmx jmx;
+	
+	@Inject private TritonServerCleaner cleaner;
+	
+	@Inject private TritonServerContext context;
+	
+	@Inject private TritonChannelMonitor channelMonitor;
+	
+	@Inject private LockManager lockManager;
+
+	public TritonJmxSetup() {
+	}
+	
+	@Inject
+	public void setup() {
+		for (TritonServerExecutor executor : context.getExecutors()) {
+			jmx.register("type=Executor,name=" + executor.getName(), new TritonExecutorMonitor(context, executor));
+		}
+		jmx.register("type=Channels", channelMonitor);
+		jmx.register("type=Lock", new LockMonitor(lockManager));
+		cleaner.add(jmx);
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.amebame.triton.server.protocol;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4UnknownSizeDecompressor;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+
+/**
+ * LZ4 compression of frame bodies.
+ * The compressed body starts with the uncompressed size in 4 bytes
+ * followed by the LZ4 block.
+ * Buffers backed by arrays are compressed in place without copying.
+ * Bodies from clients are decompressed by the safe decompressor
+ * which never reads or writes beyond the given block.
+ */
+public class TritonCompression {
+	
+	// maximum ratio of LZ4. larger sizes cannot be decompressed from the block
+	private static final int MAX_RATIO = 255;
+	
+	private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+	
+	// bounded by the block since compressed bodies are untrusted
+	private static final LZ4UnknownSizeDecompressor DECOMPRESSOR = LZ4Factory.safeInstance().unknwonSizeDecompressor();
+	
+	private TritonCompression() {
+	}
+	
+	/**
+	 * Compress the frame in the buffer. The header is copied with
+	 * the compressed flag. Returns null if the body is not reduced.
+	 * @param frame encoded frame
+	 * @param factory
+	 * @return
+	 */
+	public static ChannelBuffer compress(ChannelBuffer frame, ChannelBufferFactory factory) {
+		int size = frame.readableBytes() - TritonFrame.HEADER_SIZE;
+		int max = COMPRESSOR.maxCompressedLength(size);
+		byte[] src;
+		int srcOffset;
+		if (frame.hasArray()) {
+			src = frame.array();
+			srcOffset = frame.arrayOffset() + frame.readerIndex() + TritonFrame.HEADER_SIZE;
+		} else {
+			src = new byte[size];
+			frame.getBytes(frame.readerIndex() + TritonFrame.HEADER_SIZE, src);
+			srcOffset = 0;
+		}
+		ChannelBuffer out = factory.getBuffer(TritonFrame.HEADER_SIZE + 4 + max);
+		if (!out.hasArray()) {
+			// compress into the heap buffer
+			out = ChannelBuffers.buffer(TritonFrame.HEADER_SIZE + 4 + max);
+		}
+		int destOffset = out.arrayOffset() + TritonFrame.HEADER_SIZE + 4;
+		int length = COMPRESSOR.compress(src, srcOffset, size, out.array(), destOffset, max);
+		if (length + 4 >= size) {
+			return null;
+		}
+		out.writeBytes(frame, frame.readerIndex(), TritonFrame.HEADER_SIZE);
+		out.writeInt(size);
+		out.writerIndex(TritonFrame.HEADER_SIZE + 4 + length);
+		out.setInt(TritonFrame.BODY_SIZE_OFFSET, length + 4);
+		int flags = out.getUnsignedByte(TritonFrame.FLAGS_OFFSET);
+		out.setByte(TritonFrame.FLAGS_OFFSET, flags | TritonFrame.FLAG_COMPRESSED);
+		return out;
+	}
+	
+	/**
+	 * Decompress the body of the frame.
+	 * The declared size is checked before allocating the body.
+	 * @param body compressed body
+	 * @param maxSize limit of the uncompressed body
+	 * @return
+	 */
+	public static ChannelBuffer decompress(ChannelBuffer body, int maxSize) {
+		if (body.readableBytes() < 4) {
+			throw new CorruptedFrameException("compressed body is too short");
+		}
+		int size = body.getInt(body.readerIndex());
+		int srcLength = body.readableBytes() - 4;
+		if (size < 0 || size > maxSize || size > (long) srcLength * MAX_RATIO) {
+			throw new CorruptedFrameException("invalid uncompressed size " + size);
+		}
+		byte[] src;
+		int srcOffset;
+		if (body.hasArray()) {
+			src = body.array();
+			srcOffset = body.arrayOffset() + body.readerIndex() + 4;
+		} else {
+			src = new byte[srcLength];
+			body.getBytes(body.readerIndex() + 4, src);
+			srcOffset = 0;
+		}
+		byte[] dest = new byte[size];
+		int length;
+		try {
+			// the whole block is consumed, so truncated or padded blocks fail
+			length = DECOMPRESSOR.decompress(src, srcOffset, srcLength, dest, 0, size);
+		} catch (LZ4Exception | ArrayIndexOutOfBoundsException e) {
+			throw new CorruptedFrameException("failed to decompress the body", e);
+		}
+		if (length != size) {
+			throw new CorruptedFrameException("decompressed " + length + " bytes but expected " + size);
+		}
+		return ChannelBuffers.wrappedBuffer(dest);
+	}
+
+}
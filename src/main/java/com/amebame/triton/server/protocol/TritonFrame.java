@@ -0,0 +1,65 @@
+package com.amebame.triton.server.protocol;
+
+/**
+ * Layout of the triton framed protocol.
+ * <pre>
+ * | COMMAND_TYPE | BODY_SIZE | CALL_ID | RESERVED |
+ * | 2 bytes      | 4 bytes   | 4 bytes | 6 bytes  |
+ * </pre>
+ * The first byte of RESERVED holds the flags of the frame.
+ * Frames with no flags are plain JSON frames.
+ * The 3rd and 4th bytes of RESERVED hold the method id. The body
+ * of the frame with the method id is not wrapped by the envelope.
+ * The 5th and 6th bytes of RESERVED hold the timeout of the request
+ * in milliseconds relative to the arrival. 0 means no deadline.
+ */
+public class TritonFrame {
+	
+	// size of the header
+	public static final int HEADER_SIZE = 16;
+	
+	// offsets in the header
+	public static final int TYPE_OFFSET = 0;
+	public static final int BODY_SIZE_OFFSET = 2;
+	public static final int CALL_ID_OFFSET = 6;
+	public static final int RESERVED_OFFSET = 10;
+	
+	public static final int FLAGS_OFFSET = RESERVED_OFFSET;
+	public static final int METHOD_ID_OFFSET = RESERVED_OFFSET + 2;
+	public static final int TIMEOUT_OFFSET = RESERVED_OFFSET + 4;
+	
+	// size of reserved bytes
+	public static final int RESERVED_SIZE = 6;
+	
+	// body format in the lower 2 bits of the flags
+	public static final int FORMAT_MASK = 0x03;
+	public static final int FORMAT_JSON = 0x00;
+	public static final int FORMAT_SMILE = 0x01;
+	
+	// body is compressed with LZ4
+	public static final int FLAG_COMPRESSED = 0x04;
+	// sender accepts compressed replies
+	public static final int FLAG_ACCEPT_COMPRESSED = 0x08;
+	// partial reply. more replies follow with the same call id
+	public static final int FLAG_PARTIAL = 0x10;
+	
+	// command types
+	public static final short COMMAND = 0x0001;
+	public static final short REPLY = 0x0010;
+	public static final short ERROR = 0x0011;
+	// sent by the server without the request. call id is 0
+	public static final short PUSH = 0x0020;
+	
+	private TritonFrame() {
+	}
+	
+	/**
+	 * Get the body format from the flags
+	 * @param flags
+	 * @return
+	 */
+	public static int formatOf(int flags) {
+		return flags & FORMAT_MASK;
+	}
+
+}
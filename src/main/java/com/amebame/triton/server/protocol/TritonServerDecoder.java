@@ -0,0 +1,62 @@
+package com.amebame.triton.server.protocol;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+
+/**
+ * {@link TritonServerDecoder} decodes frames from the client to
+ * {@link TritonServerFrame}. The body is sliced from the cumulation
+ * buffer instead of being copied. {@link FrameDecoder} never writes
+ * into the bytes which have been read, so the slice is valid after
+ * the decoder consumed the frame.
+ * Compressed bodies are decompressed into a new buffer.
+ * Bodies over the limit close the connection.
+ */
+public class TritonServerDecoder extends FrameDecoder {
+	
+	// default limit of the body (64MB)
+	private static final int DEFAULT_MAX_BODY_SIZE = 64 * 1024 * 1024;
+	
+	// limit of the body before and after decompression
+	private int maxBodySize;
+	
+	public TritonServerDecoder() {
+		this(DEFAULT_MAX_BODY_SIZE);
+	}
+	
+	public TritonServerDecoder(int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+	@Override
+	protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+		if (buffer.readableBytes() < TritonFrame.HEADER_SIZE) {
+			return null;
+		}
+		int index = buffer.readerIndex();
+		int size = buffer.getInt(index + TritonFrame.BODY_SIZE_OFFSET);
+		if (size < 0 || size > maxBodySize) {
+			throw new CorruptedFrameException("invalid body size " + size);
+		}
+		if (buffer.readableBytes() < TritonFrame.HEADER_SIZE + size) {
+			// wait for the rest of the body
+			return null;
+		}
+		short type = buffer.getShort(index + TritonFrame.TYPE_OFFSET);
+		int callId = buffer.getInt(index + TritonFrame.CALL_ID_OFFSET);
+		int flags = buffer.getUnsignedByte(index + TritonFrame.FLAGS_OFFSET);
+		int methodId = buffer.getUnsignedShort(index + TritonFrame.METHOD_ID_OFFSET);
+		int timeout = buffer.getUnsignedShort(index + TritonFrame.TIMEOUT_OFFSET);
+		ChannelBuffer body = buffer.slice(index + TritonFrame.HEADER_SIZE, size);
+		buffer.skipBytes(TritonFrame.HEADER_SIZE + size);
+		if ((flags & TritonFrame.FLAG_COMPRESSED) != 0) {
+			body = TritonCompression.decompress(body, maxBodySize);
+			flags &= ~TritonFrame.FLAG_COMPRESSED;
+		}
+		return new TritonServerFrame(type, callId, flags, methodId, timeout, body);
+	}
+
+}
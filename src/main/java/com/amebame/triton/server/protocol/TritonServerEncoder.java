@@ -0,0 +1,112 @@
+package com.amebame.triton.server.protocol;
+
+import java.io.IOException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferOutputStream;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+import com.amebame.triton.server.util.ServerJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * {@link TritonServerEncoder} encodes {@link TritonServerReply} to the frame.
+ * The body is streamed by Jackson into the frame buffer allocated from
+ * the buffer factory of the channel, and BODY_SIZE of the header is written
+ * after the body. Replies are written without intermediate byte arrays.
+ * The initial capacity of the buffer follows the size of recent replies
+ * to avoid growing the buffer.
+ * The body is encoded with the format in the flags of the reply.
+ * Bodies over the threshold are compressed with LZ4 if the client
+ * accepts compressed replies.
+ */
+public class TritonServerEncoder extends OneToOneEncoder {
+	
+	private static final int MIN_ESTIMATE = 256;
+	private static final int MAX_ESTIMATE = 1024 * 1024;
+	
+	private static final ObjectWriter WRITER = ServerJson.mapper().writer();
+	
+	// estimated size of the next reply
+	private int estimate = MIN_ESTIMATE;
+	
+	// compress bodies over this size (0 to disable)
+	private int compressThreshold;
+	
+	public TritonServerEncoder() {
+		this(0);
+	}
+	
+	public TritonServerEncoder(int compressThreshold) {
+		this.compressThreshold = compressThreshold;
+	}
+
+	@Override
+	protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+		if (!(msg instanceof TritonServerReply)) {
+			return msg;
+		}
+		TritonServerReply reply = (TritonServerReply) msg;
+		long start = System.nanoTime();
+		ChannelBuffer encoded = encode(reply, channel);
+		if (reply.getStats() != null) {
+			reply.getStats().recordEncode(System.nanoTime() - start);
+		}
+		return encoded;
+	}
+	
+	private ChannelBuffer encode(TritonServerReply reply, Channel channel) throws IOException {
+		ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(
+				estimate,
+				channel.getConfig().getBufferFactory());
+		// write header with empty body size
+		buffer.writeShort(reply.getType());
+		buffer.writeInt(0);
+		buffer.writeInt(reply.getCallId());
+		// flags of the reply except the accept flag
+		buffer.writeByte(reply.getFlags() & ~TritonFrame.FLAG_ACCEPT_COMPRESSED);
+		buffer.writeZero(TritonFrame.RESERVED_SIZE - 1);
+		// stream body into the buffer
+		JsonGenerator generator = ServerJson.factory(reply.getFormat()).createGenerator(new ChannelBufferOutputStream(buffer));
+		WRITER.writeValue(generator, reply.getBody());
+		generator.close();
+		// back-patch the body size
+		int size = buffer.writerIndex();
+		buffer.setInt(TritonFrame.BODY_SIZE_OFFSET, size - TritonFrame.HEADER_SIZE);
+		updateEstimate(size);
+		if (isCompressible(reply, size - TritonFrame.HEADER_SIZE)) {
+			ChannelBuffer compressed = TritonCompression.compress(buffer, channel.getConfig().getBufferFactory());
+			if (compressed != null) {
+				return compressed;
+			}
+		}
+		return buffer;
+	}
+	
+	/**
+	 * Check the reply should be compressed
+	 * @param reply
+	 * @param size
+	 * @return
+	 */
+	private boolean isCompressible(TritonServerReply reply, int size) {
+		return compressThreshold > 0
+				&& size >= compressThreshold
+				&& (reply.getFlags() & TritonFrame.FLAG_ACCEPT_COMPRESSED) != 0;
+	}
+	
+	private void updateEstimate(int size) {
+		int next = (estimate + size) >>> 1;
+		if (next < MIN_ESTIMATE) {
+			next = MIN_ESTIMATE;
+		} else if (next > MAX_ESTIMATE) {
+			next = MAX_ESTIMATE;
+		}
+		estimate = next;
+	}
+
+}
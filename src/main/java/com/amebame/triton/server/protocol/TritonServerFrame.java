@@ -0,0 +1,125 @@
+package com.amebame.triton.server.protocol;
+
+import java.io.IOException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Frame received from the client. The body is a slice of the
+ * buffer read from the channel and is not copied.
+ * The slice keeps the received buffer reachable, so the frame
+ * should be released as soon as the body is bound.
+ */
+public class TritonServerFrame {
+	
+	private short type;
+	
+	private int callId;
+	
+	private int flags;
+	
+	private int methodId;
+	
+	// timeout in millis. 0 if not specified
+	private int timeout;
+	
+	private int bodySize;
+	
+	private ChannelBuffer body;
+	
+	public TritonServerFrame(short type, int callId, int flags, int methodId, int timeout, ChannelBuffer body) {
+		this.type = type;
+		this.callId = callId;
+		this.flags = flags;
+		this.methodId = methodId;
+		this.timeout = timeout;
+		this.body = body;
+		this.bodySize = body.readableBytes();
+	}
+	
+	public short getType() {
+		return type;
+	}
+	
+	public int getCallId() {
+		return callId;
+	}
+	
+	public int getFlags() {
+		return flags;
+	}
+	
+	/**
+	 * Get the id of the method. Returns 0 if the body is the envelope.
+	 * @return
+	 */
+	public int getMethodId() {
+		return methodId;
+	}
+	
+	/**
+	 * Get the timeout of the request in milliseconds.
+	 * Returns 0 if the header does not have the timeout.
+	 * @return
+	 */
+	public int getTimeout() {
+		return timeout;
+	}
+	
+	/**
+	 * Get the format of the body
+	 * @return
+	 */
+	public int getFormat() {
+		return TritonFrame.formatOf(flags);
+	}
+	
+	/**
+	 * Get the size of the body in bytes.
+	 * Available after the frame is released.
+	 * @return
+	 */
+	public int getBodySize() {
+		return bodySize;
+	}
+	
+	/**
+	 * Get the body slice. Returns null if released.
+	 * @return
+	 */
+	public ChannelBuffer getBody() {
+		return body;
+	}
+	
+	/**
+	 * Create the parser which reads the body in place.
+	 * Heap buffers are parsed from the backing array and
+	 * others are parsed through the stream view. The body
+	 * can be parsed again by another parser.
+	 * @param factory
+	 * @return
+	 * @throws IOException
+	 */
+	public JsonParser createParser(JsonFactory factory) throws IOException {
+		if (body.hasArray()) {
+			return factory.createParser(
+					body.array(),
+					body.arrayOffset() + body.readerIndex(),
+					body.readableBytes());
+		} else {
+			return factory.createParser(new ChannelBufferInputStream(body.duplicate()));
+		}
+	}
+	
+	/**
+	 * Release the body slice
+	 */
+	public void release() {
+		body = null;
+	}
+
+}
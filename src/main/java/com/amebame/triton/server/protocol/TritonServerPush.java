@@ -0,0 +1,41 @@
+package com.amebame.triton.server.protocol;
+
+/**
+ * Body of the {@link TritonFrame#PUSH} frame which notifies
+ * clients of the server event without the request.
+ */
+public class TritonServerPush {
+
+	// server stops reading and closes channels after the grace period
+	public static final String SHUTDOWN = "shutdown";
+
+	private String event;
+
+	// milliseconds until channels are closed
+	private long grace;
+
+	public TritonServerPush() {
+	}
+
+	public TritonServerPush(String event, long grace) {
+		this.event = event;
+		this.grace = grace;
+	}
+
+	public String getEvent() {
+		return event;
+	}
+
+	public void setEvent(String event) {
+		this.event = event;
+	}
+
+	public long getGrace() {
+		return grace;
+	}
+
+	public void setGrace(long grace) {
+		this.grace = grace;
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.amebame.triton.server.protocol;
+
+import com.amebame.triton.server.stats.TritonMethodStats;
+
+/**
+ * Reply written to the client. The body is serialized
+ * by {@link TritonServerEncoder} into the frame buffer.
+ */
+public class TritonServerReply {
+	
+	private short type;
+	
+	private int callId;
+	
+	private int flags;
+	
+	private Object body;
+	
+	// stats of the method to record encode time
+	private TritonMethodStats stats;
+	
+	public TritonServerReply(short type, int callId, Object body) {
+		this(type, callId, 0, body);
+	}
+	
+	public TritonServerReply(short type, int callId, int flags, Object body) {
+		this.type = type;
+		this.callId = callId;
+		this.flags = flags;
+		this.body = body;
+	}
+	
+	public short getType() {
+		return type;
+	}
+	
+	public int getCallId() {
+		return callId;
+	}
+	
+	public int getFlags() {
+		return flags;
+	}
+	
+	/**
+	 * Get the format to encode the body
+	 * @return
+	 */
+	public int getFormat() {
+		return TritonFrame.formatOf(flags);
+	}
+	
+	public Object getBody() {
+		return body;
+	}
+	
+	public TritonMethodStats getStats() {
+		return stats;
+	}
+	
+	public void setStats(TritonMethodStats stats) {
+		this.stats = stats;
+	}
+	
+	public boolean isError() {
+		return type == TritonFrame.ERROR;
+	}
+
+}
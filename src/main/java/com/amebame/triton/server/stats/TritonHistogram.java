@@ -0,0 +1,186 @@
+package com.amebame.triton.server.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link TritonHistogram} records latencies into log-linear buckets
+ * like HdrHistogram. Each power of 2 is split into 8 buckets, so the
+ * recorded value has at most 12.5% error.
+ * Counters are striped by the thread to avoid contention and recording
+ * does not allocate. Stripes are merged when the snapshot is taken.
+ */
+public class TritonHistogram {
+	
+	// buckets per power of 2 (2^SUB_BITS)
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	
+	// values under this are recorded linearly
+	private static final int LINEAR = SUB_COUNT << 1;
+	
+	// largest power of 2 to record. larger values are saturated
+	private static final int MAX_EXPONENT = 40;
+	private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	
+	static final int BUCKETS = LINEAR + (MAX_EXPONENT - SUB_BITS) * SUB_COUNT;
+	
+	// row of each stripe has buckets and count, sum, max
+	private static final int COUNT = BUCKETS;
+	private static final int SUM = BUCKETS + 1;
+	private static final int MAX = BUCKETS + 2;
+	// padded to keep stripes on different cache lines
+	private static final int ROW = BUCKETS + 8;
+	
+	private static final int STRIPES = stripes();
+	
+	private AtomicLongArray values;
+	
+	public TritonHistogram() {
+		values = new AtomicLongArray(STRIPES * ROW);
+	}
+	
+	/**
+	 * Record the value
+	 * @param value
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		} else if (value > MAX_VALUE) {
+			value = MAX_VALUE;
+		}
+		int row = stripe() * ROW;
+		values.incrementAndGet(row + indexOf(value));
+		values.incrementAndGet(row + COUNT);
+		values.addAndGet(row + SUM, value);
+		long max = values.get(row + MAX);
+		while (value > max) {
+			if (values.compareAndSet(row + MAX, max, value)) {
+				break;
+			}
+			max = values.get(row + MAX);
+		}
+	}
+	
+	/**
+	 * Record the value with the correction of coordinated omission.
+	 * If the value exceeds the expected interval between requests,
+	 * requests which should have been sent while waiting are
+	 * recorded too, with the latency decreasing by the interval.
+	 * @param value
+	 * @param expectedInterval
+	 */
+	public void recordCorrected(long value, long expectedInterval) {
+		record(value);
+		if (expectedInterval <= 0) {
+			return;
+		}
+		for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+			record(missing);
+		}
+	}
+	
+	/**
+	 * Clear recorded values
+	 */
+	public void reset() {
+		for (int i = 0; i < values.length(); i++) {
+			values.set(i, 0L);
+		}
+	}
+	
+	/**
+	 * Take the snapshot of the histogram.
+	 * @param unit divisor of the values such as 1000 for nanos to micros
+	 * @return
+	 */
+	public TritonHistogramSnapshot snapshot(long unit) {
+		long[] buckets = new long[BUCKETS];
+		long count = 0;
+		long sum = 0;
+		long max = 0;
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			int row = stripe * ROW;
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] += values.get(row + i);
+			}
+			count += values.get(row + COUNT);
+			sum += values.get(row + SUM);
+			max = Math.max(max, values.get(row + MAX));
+		}
+		TritonHistogramSnapshot snapshot = new TritonHistogramSnapshot();
+		snapshot.setCount(count);
+		if (count > 0) {
+			snapshot.setMean(sum / count / unit);
+			snapshot.setMax(max / unit);
+			snapshot.setP50(percentile(buckets, count, 0.5) / unit);
+			snapshot.setP90(percentile(buckets, count, 0.9) / unit);
+			snapshot.setP99(percentile(buckets, count, 0.99) / unit);
+			snapshot.setP999(percentile(buckets, count, 0.999) / unit);
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Get the value at the percentile from merged buckets
+	 * @param buckets
+	 * @param count
+	 * @param percentile
+	 * @return
+	 */
+	static long percentile(long[] buckets, long count, double percentile) {
+		long target = Math.max(1L, (long) Math.ceil(count * percentile));
+		long total = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			total += buckets[i];
+			if (total >= target) {
+				return highestValueOf(i);
+			}
+		}
+		return highestValueOf(buckets.length - 1);
+	}
+	
+	/**
+	 * Get the bucket index of the value
+	 * @param value
+	 * @return
+	 */
+	static int indexOf(long value) {
+		if (value < LINEAR) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+	}
+	
+	/**
+	 * Get the highest value recorded in the bucket
+	 * @param index
+	 * @return
+	 */
+	static long highestValueOf(int index) {
+		if (index < LINEAR) {
+			return index;
+		}
+		int exponent = (index - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+		int sub = (index - LINEAR) % SUB_COUNT;
+		long width = 1L << (exponent - SUB_BITS);
+		long lowest = (1L << exponent) | (sub * width);
+		return lowest + width - 1;
+	}
+	
+	private static int stripe() {
+		return (int) Thread.currentThread().getId() & (STRIPES - 1);
+	}
+	
+	private static int stripes() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int stripes = 1;
+		while (stripes < processors && stripes < 16) {
+			stripes <<= 1;
+		}
+		return stripes;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.amebame.triton.server.stats;
+
+/**
+ * Snapshot of {@link TritonHistogram}
+ */
+public class TritonHistogramSnapshot {
+	
+	private long count;
+	
+	private long mean;
+	
+	private long max;
+	
+	private long p50;
+	
+	private long p90;
+	
+	private long p99;
+	
+	private long p999;
+	
+	public TritonHistogramSnapshot() {
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public void setCount(long count) {
+		this.count = count;
+	}
+	
+	public long getMean() {
+		return mean;
+	}
+	
+	public void setMean(long mean) {
+		this.mean = mean;
+	}
+	
+	public long getMax() {
+		return max;
+	}
+	
+	public void setMax(long max) {
+		this.max = max;
+	}
+	
+	public long getP50() {
+		return p50;
+	}
+	
+	public void setP50(long p50) {
+		this.p50 = p50;
+	}
+	
+	public long getP90() {
+		return p90;
+	}
+	
+	public void setP90(long p90) {
+		this.p90 = p90;
+	}
+	
+	public long getP99() {
+		return p99;
+	}
+	
+	public void setP99(long p99) {
+		this.p99 = p99;
+	}
+	
+	public long getP999() {
+		return p999;
+	}
+	
+	public void setP999(long p999) {
+		this.p999 = p999;
+	}
+
+}
@@ -0,0 +1,131 @@
+package com.amebame.triton.server.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link TritonMethodStats} records latencies and results
+ * of the server method. Times are recorded in nano seconds
+ * and reported in micro seconds.
+ * <ul>
+ * <li>queue - from receiving the frame to starting execution</li>
+ * <li>execute - binding the body and invoking the method</li>
+ * <li>encode - encoding the reply to the frame</li>
+ * </ul>
+ */
+public class TritonMethodStats {
+	
+	private static final long MICROS = 1000L;
+	
+	// padding between striped success counters
+	private static final int PAD = 8;
+	
+	private static final int STRIPES = 16;
+	
+	// error codes are counted by the index. codes out of the range are counted as this
+	private static final int OTHER_ERROR = 1000;
+	
+	private String name;
+	
+	private TritonHistogram queue;
+	
+	private TritonHistogram execute;
+	
+	private TritonHistogram encode;
+	
+	private AtomicLongArray success;
+	
+	private AtomicLongArray errors;
+	
+	public TritonMethodStats(String name) {
+		this.name = name;
+		this.queue = new TritonHistogram();
+		this.execute = new TritonHistogram();
+		this.encode = new TritonHistogram();
+		this.success = new AtomicLongArray(STRIPES * PAD);
+		this.errors = new AtomicLongArray(OTHER_ERROR + 1);
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void recordQueue(long nanos) {
+		queue.record(nanos);
+	}
+	
+	public void recordExecute(long nanos) {
+		execute.record(nanos);
+	}
+	
+	public void recordEncode(long nanos) {
+		encode.record(nanos);
+	}
+	
+	public void success() {
+		int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+		success.incrementAndGet(stripe * PAD);
+	}
+	
+	/**
+	 * Count the error by the code
+	 * @param code
+	 */
+	public void error(int code) {
+		errors.incrementAndGet(code >= 0 && code < OTHER_ERROR ? code : OTHER_ERROR);
+	}
+	
+	/**
+	 * Get the count of successful calls
+	 * @return
+	 */
+	public long getSuccess() {
+		long total = 0;
+		for (int i = 0; i < STRIPES; i++) {
+			total += success.get(i * PAD);
+		}
+		return total;
+	}
+	
+	/**
+	 * Clear recorded values
+	 */
+	public void reset() {
+		queue.reset();
+		execute.reset();
+		encode.reset();
+		for (int i = 0; i < STRIPES; i++) {
+			success.set(i * PAD, 0L);
+		}
+		for (int i = 0; i <= OTHER_ERROR; i++) {
+			errors.set(i, 0L);
+		}
+	}
+	
+	/**
+	 * Take the snapshot of the stats
+	 * @return
+	 */
+	public TritonMethodStatsSnapshot snapshot() {
+		TritonMethodStatsSnapshot snapshot = new TritonMethodStatsSnapshot();
+		snapshot.setName(name);
+		snapshot.setSuccess(getSuccess());
+		Map<Integer, Long> errorCounts = new TreeMap<>();
+		long errorTotal = 0;
+		for (int i = 0; i <= OTHER_ERROR; i++) {
+			long count = errors.get(i);
+			if (count > 0) {
+				errorCounts.put(i, count);
+				errorTotal += count;
+			}
+		}
+		snapshot.setError(errorTotal);
+		snapshot.setErrors(errorCounts);
+		snapshot.setQueue(queue.snapshot(MICROS));
+		snapshot.setExecute(execute.snapshot(MICROS));
+		snapshot.setEncode(encode.snapshot(MICROS));
+		return snapshot;
+	}
+
+}
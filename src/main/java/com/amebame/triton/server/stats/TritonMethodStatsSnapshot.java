@@ -0,0 +1,85 @@
+package com.amebame.triton.server.stats;
+
+import java.util.Map;
+
+/**
+ * Snapshot of {@link TritonMethodStats}.
+ * Latencies are in micro seconds.
+ */
+public class TritonMethodStatsSnapshot {
+	
+	private String name;
+	
+	private long success;
+	
+	private long error;
+	
+	// error counts by the code
+	private Map<Integer, Long> errors;
+	
+	private TritonHistogramSnapshot queue;
+	
+	private TritonHistogramSnapshot execute;
+	
+	private TritonHistogramSnapshot encode;
+	
+	public TritonMethodStatsSnapshot() {
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public long getSuccess() {
+		return success;
+	}
+	
+	public void setSuccess(long success) {
+		this.success = success;
+	}
+	
+	public long getError() {
+		return error;
+	}
+	
+	public void setError(long error) {
+		this.error = error;
+	}
+	
+	public Map<Integer, Long> getErrors() {
+		return errors;
+	}
+	
+	public void setErrors(Map<Integer, Long> errors) {
+		this.errors = errors;
+	}
+	
+	public TritonHistogramSnapshot getQueue() {
+		return queue;
+	}
+	
+	public void setQueue(TritonHistogramSnapshot queue) {
+		this.queue = queue;
+	}
+	
+	public TritonHistogramSnapshot getExecute() {
+		return execute;
+	}
+	
+	public void setExecute(TritonHistogramSnapshot execute) {
+		this.execute = execute;
+	}
+	
+	public TritonHistogramSnapshot getEncode() {
+		return encode;
+	}
+	
+	public void setEncode(TritonHistogramSnapshot encode) {
+		this.encode = encode;
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.amebame.triton.server.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Entry of the slow request log.
+ * Times are in micro seconds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TritonSlowRequest {
+
+	// sequence number of the slow request
+	private long id;
+
+	// epoch millis when the request was completed
+	private long timestamp;
+
+	private String method;
+
+	private int channel;
+
+	private int callId;
+
+	private long queue;
+
+	private long bind;
+
+	private long execute;
+
+	private long total;
+
+	private int bodySize;
+
+	// error code if failed
+	private Integer error;
+
+	// truncated body if sampled
+	private String body;
+
+	public TritonSlowRequest() {
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public int getChannel() {
+		return channel;
+	}
+
+	public void setChannel(int channel) {
+		this.channel = channel;
+	}
+
+	public int getCallId() {
+		return callId;
+	}
+
+	public void setCallId(int callId) {
+		this.callId = callId;
+	}
+
+	public long getQueue() {
+		return queue;
+	}
+
+	public void setQueue(long queue) {
+		this.queue = queue;
+	}
+
+	public long getBind() {
+		return bind;
+	}
+
+	public void setBind(long bind) {
+		this.bind = bind;
+	}
+
+	public long getExecute() {
+		return execute;
+	}
+
+	public void setExecute(long execute) {
+		this.execute = execute;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public int getBodySize() {
+		return bodySize;
+	}
+
+	public void setBodySize(int bodySize) {
+		this.bodySize = bodySize;
+	}
+
+	public Integer getError() {
+		return error;
+	}
+
+	public void setError(Integer error) {
+		this.error = error;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+}
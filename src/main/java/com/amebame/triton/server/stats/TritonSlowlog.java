@@ -0,0 +1,127 @@
+package com.amebame.triton.server.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.config.TritonSlowlogConfiguration;
+
+/**
+ * {@link TritonSlowlog} keeps the last slow requests in the ring buffer
+ * like SLOWLOG of Redis, and writes them to the <code>triton.slowlog</code>
+ * logger which should be bound to an asynchronous appender.
+ */
+@Singleton
+public class TritonSlowlog {
+
+	private static final Logger log = LogManager.getLogger("triton.slowlog");
+
+	// threshold in nanos. 0 if disabled
+	private long threshold;
+
+	private double sampleRate;
+
+	private int sampleSize;
+
+	private AtomicReferenceArray<TritonSlowRequest> entries;
+
+	private AtomicLong sequence;
+
+	@Inject
+	public TritonSlowlog(TritonServerConfiguration config) {
+		TritonSlowlogConfiguration slowlog = config.getSlowlog();
+		this.threshold = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, slowlog.getThreshold()));
+		this.sampleRate = slowlog.getSampleRate();
+		this.sampleSize = slowlog.getSampleSize();
+		this.entries = new AtomicReferenceArray<>(Math.max(1, slowlog.getSize()));
+		this.sequence = new AtomicLong();
+	}
+
+	/**
+	 * Check the request is slow
+	 * @param nanos total time of the request
+	 * @return
+	 */
+	public boolean isSlow(long nanos) {
+		return threshold > 0 && nanos >= threshold;
+	}
+
+	/**
+	 * Decide to capture the body of the request.
+	 * The body should be captured before executing
+	 * since it is not known whether the request is slow.
+	 * @return
+	 */
+	public boolean sample() {
+		return threshold > 0 && sampleSize > 0
+				&& sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+	}
+
+	/**
+	 * Get maximum bytes of the captured body
+	 * @return
+	 */
+	public int getSampleSize() {
+		return sampleSize;
+	}
+
+	/**
+	 * Add the slow request
+	 * @param entry
+	 */
+	public void add(TritonSlowRequest entry) {
+		long id = sequence.getAndIncrement();
+		entry.setId(id);
+		entries.set((int) (id % entries.length()), entry);
+		log.info("{} channel={} callId={} total={}us queue={}us bind={}us execute={}us size={} error={} body={}",
+				entry.getMethod(),
+				entry.getChannel(),
+				entry.getCallId(),
+				entry.getTotal(),
+				entry.getQueue(),
+				entry.getBind(),
+				entry.getExecute(),
+				entry.getBodySize(),
+				entry.getError(),
+				entry.getBody());
+	}
+
+	/**
+	 * Get the slow requests from the latest
+	 * @param count maximum number of requests
+	 * @return
+	 */
+	public List<TritonSlowRequest> get(int count) {
+		List<TritonSlowRequest> list = new ArrayList<>();
+		int length = entries.length();
+		long last = sequence.get() - 1;
+		for (long id = last; id >= 0 && id > last - length && list.size() < count; id--) {
+			TritonSlowRequest entry = entries.get((int) (id % length));
+			// skip entries overwritten or cleared
+			if (entry != null && entry.getId() == id) {
+				list.add(entry);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Clear the slow requests
+	 */
+	public void reset() {
+		for (int i = 0; i < entries.length(); i++) {
+			entries.set(i, null);
+		}
+	}
+
+}
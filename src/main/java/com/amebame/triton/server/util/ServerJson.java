@@ -0,0 +1,136 @@
+package com.amebame.triton.server.util;
+
+import java.io.IOException;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.exception.TritonRuntimeException;
+import com.amebame.triton.json.Json;
+import com.amebame.triton.server.protocol.TritonFrame;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * JSON mapper used by the server to read requests and
+ * write replies as stream. Readers and writers created
+ * from the mapper are immutable, so callers should keep
+ * and reuse them.
+ * Bodies can also be encoded with Smile, the binary form of JSON.
+ * Readers are independent from the format, so the same reader
+ * binds values from parsers of both factories.
+ */
+public class ServerJson {
+
+	// header bytes of Smile content ":)\n"
+	private static final byte[] SMILE_HEADER = {0x3a, 0x29, 0x0a};
+
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+	.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory())
+	.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private ServerJson() {
+	}
+
+	/**
+	 * Get the shared mapper
+	 * @return
+	 */
+	public static ObjectMapper mapper() {
+		return MAPPER;
+	}
+
+	/**
+	 * Get the mapper of the body format.
+	 * @param format
+	 * @return
+	 */
+	public static ObjectMapper mapper(int format) {
+		switch (format) {
+		case TritonFrame.FORMAT_JSON:
+			return MAPPER;
+		case TritonFrame.FORMAT_SMILE:
+			return SMILE_MAPPER;
+		default:
+			throw new TritonRuntimeException(TritonErrors.body_format, "unsupported body format " + format);
+		}
+	}
+	
+	/**
+	 * Get the factory to create parsers and generators.
+	 * Parsers created from the factory can read values and trees.
+	 * @return
+	 */
+	public static JsonFactory factory() {
+		return MAPPER.getFactory();
+	}
+
+	/**
+	 * Get the factory of the body format.
+	 * @param format
+	 * @return
+	 */
+	public static JsonFactory factory(int format) {
+		return mapper(format).getFactory();
+	}
+
+	/**
+	 * Create the reader for the type
+	 * @param type
+	 * @return
+	 */
+	public static ObjectReader reader(Class<?> type) {
+		return MAPPER.reader(type);
+	}
+
+	/**
+	 * Check the bytes are encoded with Smile
+	 * @param bytes
+	 * @return
+	 */
+	public static boolean isSmile(byte[] bytes) {
+		if (bytes == null || bytes.length < SMILE_HEADER.length) {
+			return false;
+		}
+		for (int i = 0; i < SMILE_HEADER.length; i++) {
+			if (bytes[i] != SMILE_HEADER[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Read the tree from JSON or Smile bytes.
+	 * @param bytes
+	 * @return
+	 */
+	public static JsonNode tree(byte[] bytes) {
+		if (!isSmile(bytes)) {
+			return Json.tree(bytes);
+		}
+		try {
+			return SMILE_MAPPER.readTree(bytes);
+		} catch (IOException e) {
+			throw new TritonRuntimeException(TritonErrors.body_format, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Write the value as Smile bytes.
+	 * @param value
+	 * @return
+	 */
+	public static byte[] smile(Object value) {
+		try {
+			return SMILE_MAPPER.writeValueAsBytes(value);
+		} catch (IOException e) {
+			throw new TritonRuntimeException(TritonErrors.body_format, e.getMessage(), e);
+		}
+	}
+
+}
@@ -1,10 +1,22 @@
 package com.amebame.triton.service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
 
 import org.jboss.netty.channel.Channel;
 
+import com.amebame.triton.server.TritonExecutorStatus;
 import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.TritonServerExecutor;
+import com.amebame.triton.server.TritonServerMethod;
+import com.amebame.triton.server.stats.TritonMethodStatsSnapshot;
+import com.amebame.triton.server.stats.TritonSlowRequest;
+import com.amebame.triton.server.stats.TritonSlowlog;
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
@@ -14,15 +26,24 @@ import com.fasterxml.jackson.databind.JsonNode;
  * This class also provides some control methods.
  */
 public class TritonManagementMethods {
+	
+	private static final int SLOWLOG_COUNT = 10;
+	
+	private TritonServerContext context;
+	
+	private TritonSlowlog slowlog;
 
-	public TritonManagementMethods() {
+	@Inject
+	public TritonManagementMethods(TritonServerContext context, TritonSlowlog slowlog) {
+		this.context = context;
+		this.slowlog = slowlog;
 	}
 
 	/**
 	 * Ping method respond pong with server clock.
 	 * @return
 	 */
-	@TritonMethod("triton.heartbeat")
+	@TritonMethod(value="triton.heartbeat", inline=true)
 	public long ping() {
 		return (int) (System.currentTimeMillis() / 1000L);
 	}
@@ -32,7 +53,7 @@ public class TritonManagementMethods {
 	 * @param text
 	 * @return
 	 */
-	@TritonMethod("triton.echo")
+	@TritonMethod(value="triton.echo", inline=true)
 	public JsonNode echo(JsonNode node) {
 		return node;
 	}
@@ -49,4 +70,92 @@ public class TritonManagementMethods {
 		// close asynchronously
 		channel.close();
 	}
+	
+	/**
+	 * Get the table of method ids by the name.
+	 * Clients call the method with the id in the header
+	 * and the body without the envelope.
+	 * @return
+	 */
+	@TritonMethod(value="triton.methods", inline=true)
+	public Map<String, Integer> methods() {
+		return context.getMethodIds();
+	}
+	
+	/**
+	 * Get status of the worker executor such as
+	 * queue depth, active threads and rejected count.
+	 * @return
+	 */
+	@TritonMethod(value="triton.worker", inline=true)
+	public TritonExecutorStatus worker() {
+		return context.getWorkerExecutor().getStatus();
+	}
+	
+	/**
+	 * Get status of all executors. The worker executor comes first.
+	 * @return
+	 */
+	@TritonMethod(value="triton.executors", inline=true)
+	public List<TritonExecutorStatus> executors() {
+		List<TritonExecutorStatus> list = new ArrayList<>();
+		for (TritonServerExecutor executor : context.getExecutors()) {
+			list.add(executor.getStatus());
+		}
+		return list;
+	}
+	
+	/**
+	 * Get latencies and results of the methods which have been called.
+	 * Latencies are in micro seconds.
+	 * @return
+	 */
+	@TritonMethod("triton.stats")
+	public List<TritonMethodStatsSnapshot> stats() {
+		List<TritonMethodStatsSnapshot> list = new ArrayList<>();
+		for (TritonServerMethod method : context.getServerMethods()) {
+			TritonMethodStatsSnapshot snapshot = method.getStats().snapshot();
+			if (snapshot.getSuccess() > 0 || snapshot.getError() > 0) {
+				list.add(snapshot);
+			}
+		}
+		return list;
+	}
+	
+	/**
+	 * Clear stats of all methods
+	 * @return
+	 */
+	@TritonMethod(value="triton.stats.reset", inline=true)
+	public boolean resetStats() {
+		for (TritonServerMethod method : context.getServerMethods()) {
+			method.getStats().reset();
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the slow requests from the latest.
+	 * Body can have <code>{"count": n}</code> to limit the number of requests.
+	 * @param body
+	 * @return
+	 */
+	@TritonMethod(value="triton.slowlog", inline=true)
+	public List<TritonSlowRequest> slowlog(JsonNode body) {
+		int count = SLOWLOG_COUNT;
+		if (body != null && body.has("count")) {
+			count = body.get("count").asInt(SLOWLOG_COUNT);
+		}
+		return slowlog.get(count);
+	}
+	
+	/**
+	 * Clear the slow requests
+	 * @return
+	 */
+	@TritonMethod(value="triton.slowlog.reset", inline=true)
+	public boolean resetSlowlog() {
+		slowlog.reset();
+		return true;
+	}
 }
@@ -1,7 +1,7 @@
 package com.amebame.triton.service;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
@@ -11,19 +11,22 @@ import com.amebame.triton.util.NamedThreadFactory;
 @Singleton
 public class TritonScheduler {
 	
-	private ScheduledExecutorService executor;
+	private ScheduledThreadPoolExecutor executor;
 
 	public TritonScheduler() {
-		executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("triton-scheduler-"));
+		executor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("triton-scheduler-"));
+		// timeouts are mostly cancelled before they expire
+		executor.setRemoveOnCancelPolicy(true);
 	}
 
 	/**
 	 * Schedule once with delay
 	 * @param command
 	 * @param delay
+	 * @return future to cancel the command
 	 */
-	public void schedule(Runnable command, long delay) {
-		executor.schedule(command, delay, TimeUnit.MILLISECONDS);
+	public ScheduledFuture<?> schedule(Runnable command, long delay) {
+		return executor.schedule(command, delay, TimeUnit.MILLISECONDS);
 	}
 	
 	/**
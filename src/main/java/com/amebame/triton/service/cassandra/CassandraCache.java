@@ -0,0 +1,324 @@
+package com.amebame.triton.service.cassandra;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.cassandra.utils.Hex;
+
+import com.amebame.triton.config.TritonCassandraCacheConfiguration;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
+import com.googlecode.concurrentlinkedhashmap.EvictionListener;
+import com.netflix.astyanax.Serializer;
+
+/**
+ * {@link CassandraCache} caches results of cassandra.column.get with
+ * the single key for the column family. Results are cached by the row
+ * key and the column slice or range, and rows are evicted in LRU order
+ * by the bytes of cached columns. Rows are invalidated by writes through
+ * this server. Each write increments the version of the row, and results
+ * read before the write are not cached even if they arrive after it.
+ */
+public class CassandraCache implements CassandraCacheMXBean {
+	
+	// stripes of row versions
+	private static final int STRIPES = 64;
+	
+	// approximate bytes of each row and slice besides columns
+	private static final int OVERHEAD = 64;
+	
+	private String cluster;
+	
+	private String keyspace;
+	
+	private String columnFamily;
+	
+	// ttl in nanos
+	private long ttl;
+	
+	private int maxSlices;
+	
+	private ConcurrentLinkedHashMap<String, CachedRow> rows;
+	
+	// incremented by writes of rows in the stripe
+	private AtomicLongArray versions;
+	
+	private AtomicLong hits;
+	
+	private AtomicLong misses;
+	
+	private AtomicLong evictions;
+	
+	private AtomicLong expirations;
+	
+	private AtomicLong invalidations;
+	
+	public CassandraCache(String cluster, String keyspace, String columnFamily, TritonCassandraCacheConfiguration config) {
+		this.cluster = cluster;
+		this.keyspace = keyspace;
+		this.columnFamily = columnFamily;
+		this.ttl = TimeUnit.MILLISECONDS.toNanos(config.getTtl());
+		this.maxSlices = Math.max(1, config.getMaxSlices());
+		this.versions = new AtomicLongArray(STRIPES);
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+		this.expirations = new AtomicLong();
+		this.invalidations = new AtomicLong();
+		this.rows = new ConcurrentLinkedHashMap.Builder<String, CachedRow>()
+				.maximumWeightedCapacity(config.getMaxBytes())
+				.weigher(new EntryWeigher<String, CachedRow>() {
+					@Override
+					public int weightOf(String key, CachedRow row) {
+						return key.length() + row.weight;
+					}
+				})
+				.listener(new EvictionListener<String, CachedRow>() {
+					@Override
+					public void onEviction(String key, CachedRow row) {
+						evictions.incrementAndGet();
+					}
+				})
+				.build();
+	}
+	
+	/**
+	 * Get the cache key of the row key
+	 * @param serializer
+	 * @param key
+	 * @return
+	 */
+	public static <K> String keyOf(Serializer<K> serializer, K key) {
+		// compare by bytes not to depend on the text form
+		return Hex.bytesToHex(serializer.toBytes(key));
+	}
+	
+	/**
+	 * Get the cached result
+	 * @param key cache key of the row
+	 * @param slice text of the column slice or range
+	 * @return null if not cached or expired
+	 */
+	public CachedSlice get(String key, String slice) {
+		CachedRow row = rows.get(key);
+		CachedSlice cached = row == null ? null : row.slices.get(slice);
+		if (cached == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		if (System.nanoTime() - cached.expires >= 0) {
+			expirations.incrementAndGet();
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return cached;
+	}
+	
+	/**
+	 * Get the version of the row which should be taken
+	 * before reading the result to cache
+	 * @param key
+	 * @return
+	 */
+	public long version(String key) {
+		return versions.get(stripe(key));
+	}
+	
+	/**
+	 * Cache the result read from the backend.
+	 * The result is discarded if the row was written after the version was taken.
+	 * @param key cache key of the row
+	 * @param slice text of the column slice or range
+	 * @param value result
+	 * @param bytes bytes of columns in the result
+	 * @param version version of the row taken before reading
+	 */
+	public void put(String key, String slice, Object value, long bytes, long version) {
+		long now = System.nanoTime();
+		if (version(key) != version) {
+			return;
+		}
+		int weight = (int) Math.min(Integer.MAX_VALUE, bytes + slice.length() + OVERHEAD);
+		CachedSlice cached = new CachedSlice(value, weight, now + ttl);
+		for (;;) {
+			CachedRow row = rows.getQuietly(key);
+			if (row == null) {
+				if (rows.putIfAbsent(key, new CachedRow(slice, cached)) == null) {
+					break;
+				}
+			} else if (rows.replace(key, row, row.with(slice, cached, maxSlices, now))) {
+				break;
+			}
+		}
+		if (version(key) != version) {
+			// written while caching
+			rows.remove(key);
+		}
+	}
+	
+	/**
+	 * Invalidate results of the row
+	 * @param key cache key of the row
+	 */
+	public void invalidate(String key) {
+		versions.incrementAndGet(stripe(key));
+		if (rows.remove(key) != null) {
+			invalidations.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Invalidate all results
+	 */
+	public void invalidateAll() {
+		for (int i = 0; i < STRIPES; i++) {
+			versions.incrementAndGet(i);
+		}
+		invalidations.addAndGet(rows.size());
+		rows.clear();
+	}
+	
+	private static int stripe(String key) {
+		return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+	}
+	
+	@Override
+	public String getCluster() {
+		return cluster;
+	}
+	
+	@Override
+	public String getKeyspace() {
+		return keyspace;
+	}
+	
+	@Override
+	public String getColumnFamily() {
+		return columnFamily;
+	}
+	
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+	
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	@Override
+	public double getHitRatio() {
+		long hit = hits.get();
+		long total = hit + misses.get();
+		if (total == 0) {
+			return 0.0;
+		}
+		return (double) hit / total;
+	}
+	
+	@Override
+	public long getEvictions() {
+		return evictions.get();
+	}
+	
+	@Override
+	public long getExpirations() {
+		return expirations.get();
+	}
+	
+	@Override
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+	
+	@Override
+	public int getRows() {
+		return rows.size();
+	}
+	
+	@Override
+	public long getWeightedSize() {
+		return rows.weightedSize();
+	}
+	
+	@Override
+	public long getCapacity() {
+		return rows.capacity();
+	}
+	
+	/**
+	 * Cached result of the slice
+	 */
+	public static class CachedSlice {
+		
+		private Object value;
+		
+		private int weight;
+		
+		// nano time to expire
+		private long expires;
+		
+		private CachedSlice(Object value, int weight, long expires) {
+			this.value = value;
+			this.weight = weight;
+			this.expires = expires;
+		}
+		
+		public Object getValue() {
+			return value;
+		}
+	}
+	
+	/**
+	 * Immutable slices of the row. Replaced as a whole when a slice is added
+	 * so the weight of the row is updated by the map.
+	 */
+	private static class CachedRow {
+		
+		private Map<String, CachedSlice> slices;
+		
+		private int weight;
+		
+		private CachedRow(String slice, CachedSlice cached) {
+			this.slices = Collections.singletonMap(slice, cached);
+			this.weight = OVERHEAD + cached.weight;
+		}
+		
+		private CachedRow(Map<String, CachedSlice> slices) {
+			this.slices = slices;
+			this.weight = OVERHEAD;
+			for (CachedSlice cached : slices.values()) {
+				this.weight += cached.weight;
+			}
+		}
+		
+		/**
+		 * Copy the row with the slice. Expired slices and
+		 * the oldest slices over the limit are dropped.
+		 */
+		private CachedRow with(String slice, CachedSlice cached, int maxSlices, long now) {
+			Map<String, CachedSlice> copy = new LinkedHashMap<>(slices);
+			copy.remove(slice);
+			Iterator<Entry<String, CachedSlice>> it = copy.entrySet().iterator();
+			int size = copy.size();
+			while (it.hasNext()) {
+				CachedSlice each = it.next().getValue();
+				if (size >= maxSlices || now - each.expires >= 0) {
+					it.remove();
+					size--;
+				}
+			}
+			copy.put(slice, cached);
+			return new CachedRow(copy);
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.amebame.triton.service.cassandra;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.netflix.astyanax.Serializer;
+
+/**
+ * Rows of cached column families written by the mutation.
+ * Rows are invalidated before and after the mutation so results
+ * read while writing are not cached.
+ */
+public class CassandraCacheInvalidation implements Runnable {
+	
+	private Map<CassandraCache, Set<String>> keys;
+	
+	public CassandraCacheInvalidation() {
+		keys = new HashMap<>();
+	}
+	
+	/**
+	 * Add the written row
+	 * @param cache cache of the column family. ignored if null
+	 * @param serializer
+	 * @param key
+	 */
+	public <K> void add(CassandraCache cache, Serializer<K> serializer, K key) {
+		if (cache == null) {
+			return;
+		}
+		Set<String> set = keys.get(cache);
+		if (set == null) {
+			set = new HashSet<>();
+			keys.put(cache, set);
+		}
+		set.add(CassandraCache.keyOf(serializer, key));
+	}
+	
+	public boolean isEmpty() {
+		return keys.isEmpty();
+	}
+	
+	@Override
+	public void run() {
+		for (Entry<CassandraCache, Set<String>> entry : keys.entrySet()) {
+			CassandraCache cache = entry.getKey();
+			for (String key : entry.getValue()) {
+				cache.invalidate(key);
+			}
+		}
+	}
+
+}
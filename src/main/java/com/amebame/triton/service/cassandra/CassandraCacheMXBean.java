@@ -0,0 +1,32 @@
+package com.amebame.triton.service.cassandra;
+
+/**
+ * Statistics of the result cache of the column family
+ */
+public interface CassandraCacheMXBean {
+	
+	String getCluster();
+	
+	String getKeyspace();
+	
+	String getColumnFamily();
+	
+	long getHits();
+	
+	long getMisses();
+	
+	double getHitRatio();
+	
+	long getEvictions();
+	
+	long getExpirations();
+	
+	long getInvalidations();
+	
+	int getRows();
+	
+	long getWeightedSize();
+	
+	long getCapacity();
+
+}
@@ -12,6 +12,7 @@ import com.amebame.triton.client.cassandra.entity.TritonCassandraKeyspace;
 import com.amebame.triton.client.cassandra.method.Consistency;
 import com.amebame.triton.exception.TritonErrors;
 import com.amebame.triton.json.Json;
+import com.amebame.triton.server.util.ServerJson;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.netflix.astyanax.Serializer;
@@ -256,8 +257,8 @@ public class CassandraConverter {
 				|| serializerClass == ByteBufferSerializer.class
 				|| serializerClass == StringSerializer.class
 				|| serializerClass == AsciiSerializer.class) {
-			// make json tree from stored binary
-			return Json.tree(bytes);
+			// make json tree from stored binary (JSON or Smile)
+			return ServerJson.tree(bytes);
 		} else {
 			// Make json node from serialized value
 			return Json.tree(serializer.fromBytes(bytes));
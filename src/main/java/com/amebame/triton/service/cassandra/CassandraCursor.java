@@ -0,0 +1,179 @@
+package com.amebame.triton.service.cassandra;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import org.jboss.netty.channel.Channel;
+
+import com.amebame.triton.client.cassandra.method.Consistency;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.netflix.astyanax.connectionpool.Host;
+
+/**
+ * Paging state of the cassandra cursor.
+ * Rows are paged by the token of the last row key, and columns
+ * of the single row are paged by the name of the last column.
+ * The state is advanced by {@link TritonCassandraClient#fetch(CassandraCursor)}
+ * and the cursor should not be fetched concurrently.
+ */
+public class CassandraCursor {
+	
+	private String id;
+	
+	// client channel which opened the cursor
+	private Channel channel;
+	
+	String cluster;
+	
+	String keyspace;
+	
+	String columnFamily;
+	
+	Consistency consistency;
+	
+	int pageSize;
+	
+	// columns to get from each row
+	JsonNode columns;
+	
+	boolean columnRange;
+	
+	// key range of the row scan. start is exclusive
+	String startToken;
+	
+	String endToken;
+	
+	// rows to be fetched. -1 if unlimited
+	int remaining = -1;
+	
+	// replica to read the key range from. null to let the pool choose
+	Host host;
+	
+	// row key of the column scan. null for the row scan
+	String key;
+	
+	// column range of the column scan. start is inclusive
+	ByteBuffer columnStart;
+	
+	ByteBuffer columnEnd;
+	
+	boolean reversed;
+	
+	// first column of the next page is the last one of the previous page
+	boolean skipFirst;
+	
+	// page fetched in advance
+	private Future<Page> prefetch;
+	
+	// bytes reserved for the prefetched page
+	private long reserved;
+	
+	// bytes of the last fetched page
+	private long lastBytes;
+	
+	private volatile long accessed;
+	
+	public CassandraCursor() {
+		this.id = UUID.randomUUID().toString();
+		touch();
+	}
+	
+	public String getId() {
+		return id;
+	}
+	
+	public Channel getChannel() {
+		return channel;
+	}
+	
+	public void setChannel(Channel channel) {
+		this.channel = channel;
+	}
+	
+	/**
+	 * Check the cursor is opened by the channel
+	 * @param channel
+	 * @return
+	 */
+	public boolean isOwnedBy(Channel channel) {
+		return Objects.equals(this.channel, channel);
+	}
+	
+	/**
+	 * Check the cursor pages columns of the single row
+	 * @return
+	 */
+	public boolean isColumnScan() {
+		return key != null;
+	}
+	
+	/**
+	 * Mark the cursor accessed
+	 */
+	public void touch() {
+		accessed = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Get epoch millis when the cursor was accessed last
+	 * @return
+	 */
+	public long getAccessed() {
+		return accessed;
+	}
+	
+	public Future<Page> getPrefetch() {
+		return prefetch;
+	}
+	
+	public void setPrefetch(Future<Page> prefetch, long reserved) {
+		this.prefetch = prefetch;
+		this.reserved = reserved;
+	}
+	
+	public long getReserved() {
+		return reserved;
+	}
+	
+	public long getLastBytes() {
+		return lastBytes;
+	}
+	
+	public void setLastBytes(long lastBytes) {
+		this.lastBytes = lastBytes;
+	}
+	
+	/**
+	 * Page fetched by the cursor
+	 */
+	public static class Page {
+		
+		private List<?> values;
+		
+		// raw bytes of names and values
+		private long bytes;
+		
+		private boolean last;
+		
+		public Page(List<?> values, long bytes, boolean last) {
+			this.values = values;
+			this.bytes = bytes;
+			this.last = last;
+		}
+		
+		public List<?> getValues() {
+			return values;
+		}
+		
+		public long getBytes() {
+			return bytes;
+		}
+		
+		public boolean isLast() {
+			return last;
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package com.amebame.triton.service.cassandra;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jboss.netty.channel.Channel;
+
+import com.amebame.triton.config.TritonCassandraConfiguration;
+import com.amebame.triton.config.TritonCassandraCursorConfiguration;
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.server.TritonChannelListener;
+import com.amebame.triton.server.TritonDeadline;
+import com.amebame.triton.server.TritonDeadlineException;
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.TritonServerExecutor;
+
+/**
+ * {@link CassandraCursorManager} holds open cursors.
+ * The next page of the cursor is prefetched on the executor of
+ * <code>cassandra.cursor.next</code> while the client processes
+ * the current page. Prefetching is skipped when prefetched pages
+ * of all cursors exceed the configured bytes.
+ * Cursors are bound to the channel which opened them, and are closed
+ * with the channel. Idle cursors are closed by {@link #run()} called periodically.
+ */
+@Singleton
+public class CassandraCursorManager implements Runnable, TritonChannelListener {
+	
+	private static final Logger log = LogManager.getLogger(CassandraCursorManager.class);
+	
+	private static final String NEXT_METHOD = "cassandra.cursor.next";
+	
+	private TritonCassandraClient client;
+	
+	private TritonServerContext context;
+	
+	private TritonCassandraCursorConfiguration config;
+	
+	private ConcurrentMap<String, CassandraCursor> cursors;
+	
+	// bytes reserved for prefetched pages
+	private AtomicLong prefetchBytes;
+	
+	@Inject
+	public CassandraCursorManager(
+			TritonCassandraClient client,
+			TritonServerContext context,
+			TritonCassandraConfiguration config) {
+		this.client = client;
+		this.context = context;
+		this.config = config.getCursor();
+		this.cursors = new ConcurrentHashMap<>();
+		this.prefetchBytes = new AtomicLong();
+	}
+	
+	/**
+	 * Open the cursor and fetch the first page.
+	 * The cursor is not kept if the first page is the last.
+	 * @param channel
+	 * @param open
+	 * @return
+	 */
+	public CassandraCursorPage open(Channel channel, CassandraCursorOpen open) {
+		if (cursors.size() >= config.getMaxCursors()) {
+			throw new TritonCassandraException(TritonErrors.cassandra_error,
+					"too many cursors. close unused cursors");
+		}
+		CassandraCursor cursor = client.openCursor(open);
+		cursor.setChannel(channel);
+		cursors.put(cursor.getId(), cursor);
+		// the channel may be closed before the cursor is added
+		if (channel != null && !channel.isOpen()) {
+			cursors.remove(cursor.getId(), cursor);
+			throw new TritonCassandraException(TritonErrors.cassandra_error,
+					"channel is closed while opening the cursor");
+		}
+		return next(cursor);
+	}
+	
+	/**
+	 * Fetch the next page of the cursor
+	 * @param channel
+	 * @param id
+	 * @return
+	 */
+	public CassandraCursorPage next(Channel channel, String id) {
+		CassandraCursor cursor = get(channel, id);
+		if (cursor == null) {
+			throw new TritonCassandraException(TritonErrors.body_format,
+					"cursor " + id + " does not exist or has been closed");
+		}
+		return next(cursor);
+	}
+	
+	private CassandraCursorPage next(CassandraCursor cursor) {
+		synchronized (cursor) {
+			// closed while waiting for the lock
+			if (cursors.get(cursor.getId()) != cursor) {
+				throw new TritonCassandraException(TritonErrors.body_format,
+						"cursor " + cursor.getId() + " has been closed");
+			}
+			cursor.touch();
+			CassandraCursor.Page page = null;
+			try {
+				page = takePrefetch(cursor);
+				if (page == null) {
+					page = client.fetch(cursor);
+				}
+			} catch (RuntimeException e) {
+				remove(cursor);
+				throw e;
+			}
+			cursor.setLastBytes(page.getBytes());
+			CassandraCursorPage reply = new CassandraCursorPage();
+			if (cursor.isColumnScan()) {
+				reply.setColumns(page.getValues());
+			} else {
+				reply.setRows(page.getValues());
+			}
+			if (page.isLast()) {
+				remove(cursor);
+			} else {
+				reply.setCursor(cursor.getId());
+				prefetch(cursor);
+			}
+			return reply;
+		}
+	}
+	
+	/**
+	 * Close the cursor
+	 * @param channel
+	 * @param id
+	 * @return false if the cursor does not exist
+	 */
+	public boolean close(Channel channel, String id) {
+		CassandraCursor cursor = get(channel, id);
+		if (cursor == null) {
+			return false;
+		}
+		synchronized (cursor) {
+			return remove(cursor);
+		}
+	}
+	
+	/**
+	 * Close cursors opened by the closed channel
+	 * @param channel
+	 */
+	@Override
+	public void channelClosed(Channel channel) {
+		for (CassandraCursor cursor : cursors.values()) {
+			if (channel.equals(cursor.getChannel())) {
+				synchronized (cursor) {
+					if (remove(cursor)) {
+						log.debug("closed cursor {} with the channel", cursor.getId());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Get the cursor opened by the channel
+	 * @param channel
+	 * @param id
+	 * @return null if the cursor does not exist or is opened by another channel
+	 */
+	private CassandraCursor get(Channel channel, String id) {
+		CassandraCursor cursor = id == null ? null : cursors.get(id);
+		if (cursor == null || !cursor.isOwnedBy(channel)) {
+			return null;
+		}
+		return cursor;
+	}
+	
+	/**
+	 * Get number of open cursors
+	 * @return
+	 */
+	public int getCursorCount() {
+		return cursors.size();
+	}
+	
+	/**
+	 * Get bytes reserved for prefetched pages
+	 * @return
+	 */
+	public long getPrefetchBytes() {
+		return prefetchBytes.get();
+	}
+	
+	/**
+	 * Close idle cursors
+	 */
+	@Override
+	public void run() {
+		long expired = System.currentTimeMillis() - config.getTimeout();
+		for (CassandraCursor cursor : cursors.values()) {
+			if (cursor.getAccessed() < expired) {
+				synchronized (cursor) {
+					// check again since it may be fetched while waiting
+					if (cursor.getAccessed() < expired && remove(cursor)) {
+						log.debug("closed idle cursor {}", cursor.getId());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Fetch the next page in advance if the memory allows
+	 * @param cursor
+	 */
+	private void prefetch(final CassandraCursor cursor) {
+		// reserve the size of the last page
+		long reserved = cursor.getLastBytes();
+		if (prefetchBytes.addAndGet(reserved) > config.getMaxBytes()) {
+			prefetchBytes.addAndGet(-reserved);
+			return;
+		}
+		FutureTask<CassandraCursor.Page> task = new FutureTask<>(new PrefetchTask(cursor));
+		TritonServerExecutor executor = context.getExecutor(NEXT_METHOD);
+		if (executor.tryExecute(task)) {
+			cursor.setPrefetch(task, reserved);
+		} else {
+			// fetch on demand if the executor is busy
+			prefetchBytes.addAndGet(-reserved);
+		}
+	}
+	
+	/**
+	 * Take the prefetched page. Returns null if not prefetched.
+	 * @param cursor
+	 * @return
+	 */
+	private CassandraCursor.Page takePrefetch(CassandraCursor cursor) {
+		Future<CassandraCursor.Page> future = cursor.getPrefetch();
+		if (future == null) {
+			return null;
+		}
+		release(cursor);
+		long remaining = TritonDeadline.remaining(TimeUnit.MILLISECONDS);
+		try {
+			if (remaining < 0) {
+				return future.get();
+			}
+			return future.get(remaining, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new TritonDeadlineException("deadline exceeded while prefetching the cursor", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TritonCassandraException(TritonErrors.cassandra_error, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new TritonCassandraException(TritonErrors.cassandra_error, e.getCause());
+		}
+	}
+	
+	/**
+	 * Release the prefetch of the cursor
+	 * @param cursor
+	 */
+	private void release(CassandraCursor cursor) {
+		prefetchBytes.addAndGet(-cursor.getReserved());
+		cursor.setPrefetch(null, 0L);
+	}
+	
+	/**
+	 * Remove the cursor. Should be called with the lock of the cursor.
+	 * @param cursor
+	 * @return false if already removed
+	 */
+	private boolean remove(CassandraCursor cursor) {
+		if (!cursors.remove(cursor.getId(), cursor)) {
+			return false;
+		}
+		Future<CassandraCursor.Page> future = cursor.getPrefetch();
+		if (future != null) {
+			future.cancel(false);
+			release(cursor);
+		}
+		return true;
+	}
+	
+	/**
+	 * Task to fetch the next page in advance
+	 */
+	private class PrefetchTask implements Callable<CassandraCursor.Page> {
+		private CassandraCursor cursor;
+		private PrefetchTask(CassandraCursor cursor) {
+			this.cursor = cursor;
+		}
+		@Override
+		public CassandraCursor.Page call() throws Exception {
+			return client.fetch(cursor);
+		}
+	}
+
+}
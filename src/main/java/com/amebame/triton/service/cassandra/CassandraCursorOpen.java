@@ -0,0 +1,104 @@
+package com.amebame.triton.service.cassandra;
+
+import com.amebame.triton.client.cassandra.method.Consistency;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Body of cassandra.cursor.open.
+ * <ul>
+ * <li>keys as the range or null - pages rows of the key range</li>
+ * <li>keys as the string - pages the column range of the row</li>
+ * </ul>
+ */
+public class CassandraCursorOpen {
+	
+	private String cluster;
+	
+	private String keyspace;
+	
+	private String columnFamily;
+	
+	private JsonNode keys;
+	
+	private JsonNode columns;
+	
+	private Consistency consistency;
+	
+	// rows or columns per page. default is cassandra.pageSize
+	private int pageSize;
+	
+	public CassandraCursorOpen() {
+	}
+	
+	public String getCluster() {
+		return cluster;
+	}
+	
+	public void setCluster(String cluster) {
+		this.cluster = cluster;
+	}
+	
+	public String getKeyspace() {
+		return keyspace;
+	}
+	
+	public void setKeyspace(String keyspace) {
+		this.keyspace = keyspace;
+	}
+	
+	public String getColumnFamily() {
+		return columnFamily;
+	}
+	
+	public void setColumnFamily(String columnFamily) {
+		this.columnFamily = columnFamily;
+	}
+	
+	public JsonNode getKeys() {
+		return keys;
+	}
+	
+	public void setKeys(JsonNode keys) {
+		this.keys = keys;
+	}
+	
+	public JsonNode getColumns() {
+		return columns;
+	}
+	
+	public void setColumns(JsonNode columns) {
+		this.columns = columns;
+	}
+	
+	public Consistency getConsistency() {
+		return consistency;
+	}
+	
+	public void setConsistency(Consistency consistency) {
+		this.consistency = consistency;
+	}
+	
+	public int getPageSize() {
+		return pageSize;
+	}
+	
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+	
+	/**
+	 * Check the cursor pages columns of the single row
+	 * @return
+	 */
+	public boolean isColumnScan() {
+		return keys != null && keys.isTextual();
+	}
+	
+	/**
+	 * Check the columns are given as the range
+	 * @return
+	 */
+	public boolean hasColumnRange() {
+		return columns != null && columns.isObject();
+	}
+}
@@ -0,0 +1,45 @@
+package com.amebame.triton.service.cassandra;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Reply of cassandra.cursor.open and cassandra.cursor.next.
+ * The cursor is null if the page is the last one.
+ */
+@JsonInclude(Include.NON_NULL)
+public class CassandraCursorPage {
+	
+	private String cursor;
+	
+	private Object rows;
+	
+	private Object columns;
+	
+	public CassandraCursorPage() {
+	}
+	
+	public String getCursor() {
+		return cursor;
+	}
+	
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+	
+	public Object getRows() {
+		return rows;
+	}
+	
+	public void setRows(Object rows) {
+		this.rows = rows;
+	}
+	
+	public Object getColumns() {
+		return columns;
+	}
+	
+	public void setColumns(Object columns) {
+		this.columns = columns;
+	}
+}
@@ -0,0 +1,32 @@
+package com.amebame.triton.service.cassandra;
+
+/**
+ * Health of the connection pool of the keyspace
+ */
+public interface CassandraPoolMXBean {
+	
+	String getCluster();
+	
+	String getKeyspace();
+	
+	long getHosts();
+	
+	long getOpenConnections();
+	
+	long getBusyConnections();
+	
+	long getMaxConnections();
+	
+	double getUtilization();
+	
+	long getPoolExhaustedTimeouts();
+	
+	long getSocketTimeouts();
+	
+	long getOperationTimeouts();
+	
+	long getOperationSuccess();
+	
+	long getOperationFailure();
+
+}
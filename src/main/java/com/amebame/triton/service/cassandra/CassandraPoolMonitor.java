@@ -0,0 +1,91 @@
+package com.amebame.triton.service.cassandra;
+
+import com.netflix.astyanax.connectionpool.impl.CountingConnectionPoolMonitor;
+
+/**
+ * MBean of the astyanax connection pool of the keyspace.
+ * Counts are taken from the {@link CountingConnectionPoolMonitor}
+ * attached to the pool.
+ */
+public class CassandraPoolMonitor implements CassandraPoolMXBean {
+	
+	private String cluster;
+	
+	private String keyspace;
+	
+	private CountingConnectionPoolMonitor monitor;
+	
+	private int maxConnsPerHost;
+	
+	public CassandraPoolMonitor(String cluster, String keyspace, CountingConnectionPoolMonitor monitor, int maxConnsPerHost) {
+		this.cluster = cluster;
+		this.keyspace = keyspace;
+		this.monitor = monitor;
+		this.maxConnsPerHost = maxConnsPerHost;
+	}
+	
+	@Override
+	public String getCluster() {
+		return cluster;
+	}
+	
+	@Override
+	public String getKeyspace() {
+		return keyspace;
+	}
+	
+	@Override
+	public long getHosts() {
+		return monitor.getHostCount();
+	}
+	
+	@Override
+	public long getOpenConnections() {
+		return monitor.getNumOpenConnections();
+	}
+	
+	@Override
+	public long getBusyConnections() {
+		return monitor.getNumBusyConnections();
+	}
+	
+	@Override
+	public long getMaxConnections() {
+		return monitor.getHostCount() * maxConnsPerHost;
+	}
+	
+	@Override
+	public double getUtilization() {
+		long max = getMaxConnections();
+		if (max == 0) {
+			return 0.0;
+		}
+		return (double) getBusyConnections() / max;
+	}
+	
+	@Override
+	public long getPoolExhaustedTimeouts() {
+		return monitor.getPoolExhaustedTimeoutCount();
+	}
+	
+	@Override
+	public long getSocketTimeouts() {
+		return monitor.getSocketTimeoutCount();
+	}
+	
+	@Override
+	public long getOperationTimeouts() {
+		return monitor.getOperationTimeoutCount();
+	}
+	
+	@Override
+	public long getOperationSuccess() {
+		return monitor.getOperationSuccessCount();
+	}
+	
+	@Override
+	public long getOperationFailure() {
+		return monitor.getOperationFailureCount();
+	}
+
+}
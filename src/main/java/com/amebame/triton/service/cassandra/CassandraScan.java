@@ -0,0 +1,111 @@
+package com.amebame.triton.service.cassandra;
+
+import com.amebame.triton.client.cassandra.method.Consistency;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Body of cassandra.columnfamily.scan
+ */
+public class CassandraScan {
+	
+	private String cluster;
+	
+	private String keyspace;
+	
+	private String columnFamily;
+	
+	private JsonNode columns;
+	
+	private Consistency consistency;
+	
+	// rows per page. default is cassandra.pageSize
+	private int pageSize;
+	
+	// concurrent sub scans per node. default is cassandra.scan.parallelism
+	private int parallelism;
+	
+	// file name in cassandra.scan.directory. rows are streamed if not set
+	private String file;
+	
+	public CassandraScan() {
+	}
+	
+	public String getCluster() {
+		return cluster;
+	}
+	
+	public void setCluster(String cluster) {
+		this.cluster = cluster;
+	}
+	
+	public String getKeyspace() {
+		return keyspace;
+	}
+	
+	public void setKeyspace(String keyspace) {
+		this.keyspace = keyspace;
+	}
+	
+	public String getColumnFamily() {
+		return columnFamily;
+	}
+	
+	public void setColumnFamily(String columnFamily) {
+		this.columnFamily = columnFamily;
+	}
+	
+	public JsonNode getColumns() {
+		return columns;
+	}
+	
+	public void setColumns(JsonNode columns) {
+		this.columns = columns;
+	}
+	
+	public Consistency getConsistency() {
+		return consistency;
+	}
+	
+	public void setConsistency(Consistency consistency) {
+		this.consistency = consistency;
+	}
+	
+	public int getPageSize() {
+		return pageSize;
+	}
+	
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+	
+	public String getFile() {
+		return file;
+	}
+	
+	public void setFile(String file) {
+		this.file = file;
+	}
+	
+	/**
+	 * Get the cursor to scan the whole ring
+	 * @return
+	 */
+	public CassandraCursorOpen toCursorOpen() {
+		CassandraCursorOpen open = new CassandraCursorOpen();
+		open.setCluster(cluster);
+		open.setKeyspace(keyspace);
+		open.setColumnFamily(columnFamily);
+		open.setColumns(columns);
+		open.setConsistency(consistency);
+		open.setPageSize(pageSize);
+		return open;
+	}
+}
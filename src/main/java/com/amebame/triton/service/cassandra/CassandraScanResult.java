@@ -0,0 +1,42 @@
+package com.amebame.triton.service.cassandra;
+
+/**
+ * Reply of cassandra.columnfamily.scan written to the file
+ */
+public class CassandraScanResult {
+	
+	private String file;
+	
+	private long rows;
+	
+	private int ranges;
+	
+	// elapsed millis
+	private long elapsed;
+	
+	public CassandraScanResult() {
+	}
+	
+	public CassandraScanResult(String file, long rows, int ranges, long elapsed) {
+		this.file = file;
+		this.rows = rows;
+		this.ranges = ranges;
+		this.elapsed = elapsed;
+	}
+	
+	public String getFile() {
+		return file;
+	}
+	
+	public long getRows() {
+		return rows;
+	}
+	
+	public int getRanges() {
+		return ranges;
+	}
+	
+	public long getElapsed() {
+		return elapsed;
+	}
+}
@@ -0,0 +1,312 @@
+package com.amebame.triton.service.cassandra;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amebame.triton.config.TritonCassandraConfiguration;
+import com.amebame.triton.config.TritonCassandraScanConfiguration;
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.server.TritonCleaner;
+import com.amebame.triton.server.TritonServerStream;
+import com.amebame.triton.server.util.ServerJson;
+import com.amebame.triton.util.NamedThreadFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.netflix.astyanax.connectionpool.TokenRange;
+
+/**
+ * {@link CassandraScanner} reads the whole column family by splitting
+ * the ring into the token ranges. Each range is scanned by pages on
+ * the replica which owns the range, and ranges are scanned concurrently
+ * up to the parallelism per node. Range scans of all scans share
+ * the bounded executor. Rows are streamed to the client
+ * or written to the file as newline delimited JSON.
+ */
+@Singleton
+public class CassandraScanner implements TritonCleaner {
+	
+	private static final Logger log = LogManager.getLogger(CassandraScanner.class);
+	
+	// file names without directories
+	private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_\\-][A-Za-z0-9_\\-\\.]*");
+	
+	private static final ObjectWriter WRITER = ServerJson.mapper().writer();
+	
+	private TritonCassandraClient client;
+	
+	private TritonCassandraScanConfiguration config;
+	
+	private ExecutorService executor;
+	
+	@Inject
+	public CassandraScanner(TritonCassandraClient client, TritonCassandraConfiguration config) {
+		this.client = client;
+		this.config = config.getScan();
+		this.executor = Executors.newFixedThreadPool(
+				Math.max(1, this.config.getThreads()),
+				new NamedThreadFactory("triton-scan-"));
+	}
+	
+	/**
+	 * Scan the column family.
+	 * Pages of rows are written to the stream as partial replies and
+	 * the stream is ended by the empty array. If the file is given,
+	 * the stream is ended by {@link CassandraScanResult}.
+	 * @param scan
+	 * @param stream
+	 */
+	public void scan(CassandraScan scan, TritonServerStream stream) {
+		long start = System.currentTimeMillis();
+		File file = scan.getFile() == null ? null : resolve(scan.getFile());
+		List<TokenRange> ranges = client.getTokenRange(scan.getCluster(), scan.getKeyspace());
+		// the client can lower the parallelism but cannot exceed the configured one
+		int parallelism = config.getParallelism();
+		if (scan.getParallelism() > 0) {
+			parallelism = Math.min(scan.getParallelism(), parallelism);
+		}
+		Replicas replicas = new Replicas(ranges, Math.max(1, parallelism));
+		int workers = Math.max(1, Math.min(ranges.size(), replicas.getCapacity()));
+		log.info("scanning {}.{} with {} ranges in {} workers",
+				scan.getKeyspace(), scan.getColumnFamily(), ranges.size(), workers);
+		
+		Sink sink = file == null ? new StreamSink(stream) : new FileSink(file);
+		Queue<TokenRange> pending = new ConcurrentLinkedQueue<>(ranges);
+		List<Future<Long>> futures = new ArrayList<>(workers);
+		long rows = 0L;
+		try {
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(new RangeScan(scan, pending, replicas, sink)));
+			}
+			for (Future<Long> future : futures) {
+				rows += future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TritonCassandraException(TritonErrors.cassandra_error, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new TritonCassandraException(TritonErrors.cassandra_error, e.getCause());
+		} finally {
+			// stop other workers if failed
+			pending.clear();
+			for (Future<Long> future : futures) {
+				future.cancel(true);
+			}
+			sink.close();
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		log.info("scanned {} rows of {}.{} in {} ms", rows, scan.getKeyspace(), scan.getColumnFamily(), elapsed);
+		if (file == null) {
+			stream.end(Collections.emptyList());
+		} else {
+			stream.end(new CassandraScanResult(file.getPath(), rows, ranges.size(), elapsed));
+		}
+	}
+	
+	/**
+	 * Resolve the file in the scan directory
+	 * @param name
+	 * @return
+	 */
+	private File resolve(String name) {
+		if (config.getDirectory() == null) {
+			throw new TritonCassandraException(TritonErrors.body_format, "cassandra.scan.directory is not configured");
+		}
+		if (!FILE_NAME.matcher(name).matches()) {
+			throw new TritonCassandraException(TritonErrors.body_format, "invalid file name " + name);
+		}
+		return new File(config.getDirectory(), name);
+	}
+	
+	/**
+	 * Shutdown the scan executor
+	 */
+	@Override
+	public void clean() {
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Worker scanning token ranges taken from the queue
+	 */
+	private class RangeScan implements Callable<Long> {
+		
+		private CassandraScan scan;
+		private Queue<TokenRange> pending;
+		private Replicas replicas;
+		private Sink sink;
+		
+		private RangeScan(CassandraScan scan, Queue<TokenRange> pending, Replicas replicas, Sink sink) {
+			this.scan = scan;
+			this.pending = pending;
+			this.replicas = replicas;
+			this.sink = sink;
+		}
+		
+		@Override
+		public Long call() throws Exception {
+			long rows = 0L;
+			TokenRange range = null;
+			while (!Thread.currentThread().isInterrupted() && (range = pending.poll()) != null) {
+				rows += scanRange(range);
+			}
+			return rows;
+		}
+		
+		private long scanRange(TokenRange range) throws Exception {
+			String endpoint = replicas.acquire(range.getEndpoints());
+			try {
+				CassandraCursor cursor = client.openCursor(scan.toCursorOpen());
+				cursor.startToken = range.getStartToken();
+				cursor.endToken = range.getEndToken();
+				if (endpoint != null) {
+					cursor.host = client.getHost(scan.getCluster(), endpoint);
+				}
+				long rows = 0L;
+				while (!Thread.currentThread().isInterrupted()) {
+					CassandraCursor.Page page = client.fetch(cursor);
+					rows += page.getValues().size();
+					sink.write(page.getValues());
+					if (page.isLast()) {
+						break;
+					}
+				}
+				return rows;
+			} finally {
+				replicas.release(endpoint);
+			}
+		}
+	}
+	
+	/**
+	 * Permits of concurrent scans per node
+	 */
+	private static class Replicas {
+		
+		private Map<String, Semaphore> permits;
+		
+		private int capacity;
+		
+		private Replicas(List<TokenRange> ranges, int parallelism) {
+			Set<String> endpoints = new HashSet<>();
+			for (TokenRange range : ranges) {
+				endpoints.addAll(range.getEndpoints());
+			}
+			permits = new HashMap<>();
+			for (String endpoint : endpoints) {
+				permits.put(endpoint, new Semaphore(parallelism));
+			}
+			capacity = Math.max(1, endpoints.size()) * parallelism;
+		}
+		
+		private int getCapacity() {
+			return capacity;
+		}
+		
+		/**
+		 * Acquire the replica which has the free permit.
+		 * Waits for the first replica if all are busy.
+		 * @param endpoints
+		 * @return null if the range has no replicas
+		 * @throws InterruptedException
+		 */
+		private String acquire(List<String> endpoints) throws InterruptedException {
+			if (endpoints.isEmpty()) {
+				return null;
+			}
+			for (String endpoint : endpoints) {
+				if (permits.get(endpoint).tryAcquire()) {
+					return endpoint;
+				}
+			}
+			String endpoint = endpoints.get(0);
+			permits.get(endpoint).acquire();
+			return endpoint;
+		}
+		
+		private void release(String endpoint) {
+			if (endpoint != null) {
+				permits.get(endpoint).release();
+			}
+		}
+	}
+	
+	/**
+	 * Destination of scanned rows shared by range scans
+	 */
+	private interface Sink {
+		void write(List<?> rows) throws IOException;
+		void close();
+	}
+	
+	private static class StreamSink implements Sink {
+		private TritonServerStream stream;
+		private StreamSink(TritonServerStream stream) {
+			this.stream = stream;
+		}
+		@Override
+		public synchronized void write(List<?> rows) {
+			if (!rows.isEmpty()) {
+				stream.write(rows);
+			}
+		}
+		@Override
+		public void close() {
+		}
+	}
+	
+	private static class FileSink implements Sink {
+		private Writer writer;
+		private FileSink(File file) {
+			try {
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				throw new TritonCassandraException(TritonErrors.server_error, "failed to open " + file.getPath(), e);
+			}
+		}
+		@Override
+		public synchronized void write(List<?> rows) throws IOException {
+			for (Object row : rows) {
+				writer.write(WRITER.writeValueAsString(row));
+				writer.write('\n');
+			}
+		}
+		@Override
+		public synchronized void close() {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				log.warn("failed to close the scan file", e);
+			}
+		}
+	}
+
+}
@@ -3,11 +3,19 @@ package com.amebame.triton.service.cassandra;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -17,6 +25,7 @@ import org.apache.cassandra.dht.IPartitioner;
 import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.dht.Token.TokenFactory;
 import org.apache.cassandra.utils.Hex;
+import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jboss.netty.util.internal.ConcurrentHashMap;
@@ -24,25 +33,43 @@ import org.jboss.netty.util.internal.ConcurrentHashMap;
 import com.amebame.triton.client.cassandra.method.GetColumns;
 import com.amebame.triton.client.cassandra.method.RemoveColumns;
 import com.amebame.triton.client.cassandra.method.SetColumns;
+import com.amebame.triton.config.TritonCassandraCacheConfiguration;
 import com.amebame.triton.config.TritonCassandraClusterConfiguration;
 import com.amebame.triton.config.TritonCassandraConfiguration;
 import com.amebame.triton.exception.TritonErrors;
 import com.amebame.triton.server.TritonCleaner;
+import com.amebame.triton.server.TritonDeadline;
+import com.amebame.triton.server.TritonDeadlineException;
+import com.amebame.triton.server.TritonServerStream;
+import com.amebame.triton.server.jmx.TritonJmx;
 import com.amebame.triton.server.util.BytesUtil;
+import com.amebame.triton.service.TritonScheduler;
+import com.amebame.triton.util.NamedThreadFactory;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.netflix.astyanax.AstyanaxContext;
 import com.netflix.astyanax.Cluster;
 import com.netflix.astyanax.ColumnListMutation;
+import com.netflix.astyanax.Execution;
 import com.netflix.astyanax.Keyspace;
 import com.netflix.astyanax.MutationBatch;
 import com.netflix.astyanax.Serializer;
 import com.netflix.astyanax.SerializerPackage;
+import com.netflix.astyanax.connectionpool.Host;
 import com.netflix.astyanax.connectionpool.OperationResult;
 import com.netflix.astyanax.connectionpool.TokenRange;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.exceptions.NoAvailableHostsException;
 import com.netflix.astyanax.connectionpool.impl.ConnectionPoolConfigurationImpl;
+import com.netflix.astyanax.connectionpool.impl.CountingConnectionPoolMonitor;
 import com.netflix.astyanax.ddl.ColumnFamilyDefinition;
 import com.netflix.astyanax.ddl.KeyspaceDefinition;
+import com.netflix.astyanax.impl.AstyanaxConfigurationImpl;
 import com.netflix.astyanax.model.ByteBufferRange;
 import com.netflix.astyanax.model.Column;
 import com.netflix.astyanax.model.ColumnFamily;
@@ -69,24 +96,82 @@ public class TritonCassandraClient implements TritonCleaner {
 	
 	private ConcurrentMap<String, ColumnFamily<?, ?>> cfmap;
 	
+	// executors of asynchronous operations by the cluster name
+	private ConcurrentMap<String, ExecutorService> asyncExecutors;
+	
 	private TritonCassandraConfiguration config;
 	
 	private Lock lock;
 	
+	private TritonJmx jmx;
+	
+	// fails asynchronous operations at the deadline
+	private TritonScheduler scheduler;
+	
+	// result caches by the column family. not modified after initialized
+	private Map<String, CassandraCache> caches;
+	
 	private static final Integer DEFAULT_LIMIT_ROWS = 100;
 	private static final Integer DEFAULT_LIMIT_COLUMNS = 1000;
 	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
 	
+	private static final Function<Object, Boolean> SUCCEEDED = new Function<Object, Boolean>() {
+		@Override
+		public Boolean apply(Object result) {
+			return Boolean.TRUE;
+		}
+	};
+	
 	@Inject
-	public TritonCassandraClient(TritonCassandraConfiguration config) {
+	public TritonCassandraClient(TritonCassandraConfiguration config, TritonJmx jmx, TritonScheduler scheduler) {
 		this.clustermap = new ConcurrentHashMap<>();
 		this.keyspacemap = new ConcurrentHashMap<>();
 		this.cfmap = new ConcurrentHashMap<>();
+		this.asyncExecutors = new ConcurrentHashMap<>();
 		this.lock = new ReentrantLock();
 		this.config = config;
+		this.jmx = jmx;
+		this.scheduler = scheduler;
+		this.caches = new HashMap<>();
+		for (Entry<String, TritonCassandraCacheConfiguration> entry : config.getCaches().entrySet()) {
+			String[] names = StringUtils.split(entry.getKey(), '.');
+			if (names.length != 3) {
+				throw new TritonCassandraException(TritonErrors.server_error,
+						"cache name should be cluster.keyspace.columnFamily but " + entry.getKey());
+			}
+			CassandraCache cache = new CassandraCache(names[0], names[1], names[2], entry.getValue());
+			caches.put(getKey(names[0], names[1], names[2]), cache);
+			jmx.register(
+					"type=CassandraCache,cluster=" + TritonJmx.quote(names[0])
+					+ ",keyspace=" + TritonJmx.quote(names[1])
+					+ ",columnFamily=" + TritonJmx.quote(names[2]),
+					cache);
+		}
 		log.info("initialized triton cassandra client");
 	}
 	
+	/**
+	 * Get the result cache of the column family
+	 * @param clusterName
+	 * @param keyspaceName
+	 * @param columnFamilyName
+	 * @return null if the cache is not configured
+	 */
+	public CassandraCache getCache(String clusterName, String keyspaceName, String columnFamilyName) {
+		if (caches.isEmpty()) {
+			return null;
+		}
+		return caches.get(getKey(clusterName, keyspaceName, columnFamilyName));
+	}
+	
+	/**
+	 * Get all result caches
+	 * @return
+	 */
+	public Collection<CassandraCache> getCaches() {
+		return caches.values();
+	}
+	
 	/**
 	 * Get cluster list
 	 * @return
@@ -156,6 +241,16 @@ public class TritonCassandraClient implements TritonCleaner {
 		}
 	}
 	
+	/**
+	 * Get the host of the cluster to pin operations
+	 * @param clusterName
+	 * @param address address of the node in the ring
+	 * @return
+	 */
+	public Host getHost(String clusterName, String address) {
+		return new Host(address, getClusterConfig(clusterName).getPoolConfig().getPort());
+	}
+	
 	/**
 	 * Get keyspace instance
 	 * @param clusterName
@@ -193,7 +288,7 @@ public class TritonCassandraClient implements TritonCleaner {
 					// build the astyanax context
 					AstyanaxContext<Cluster> context = new AstyanaxContext.Builder()
 					.forCluster(clusterConfig.getName())
-					.withAstyanaxConfiguration(clusterConfig.getAstyanaxConfig())
+					.withAstyanaxConfiguration(getAstyanaxConfig(clusterName, clusterConfig))
 					.withConnectionPoolConfiguration(
 							new ConnectionPoolConfigurationImpl(clusterName+"-pool")
 							.setMaxConnsPerHost(1)
@@ -211,6 +306,30 @@ public class TritonCassandraClient implements TritonCleaner {
 		return holder;
 	}
 	
+	/**
+	 * Get the astyanax configuration with the executor of asynchronous operations.
+	 * The executor is created on the first context of the cluster. Should be
+	 * called with the lock.
+	 * @param clusterName
+	 * @param clusterConfig
+	 * @return
+	 */
+	private AstyanaxConfigurationImpl getAstyanaxConfig(String clusterName, TritonCassandraClusterConfiguration clusterConfig) {
+		AstyanaxConfigurationImpl astyanaxConfig = clusterConfig.getAstyanaxConfig();
+		if (!asyncExecutors.containsKey(clusterName)) {
+			ExecutorService executor = Executors.newFixedThreadPool(clusterConfig.getAsyncThreads(),
+					new NamedThreadFactory("triton-cassandra-async-"));
+			// replace the default executor of astyanax
+			ExecutorService previous = astyanaxConfig.getAsyncExecutor();
+			astyanaxConfig.setAsyncExecutor(executor);
+			asyncExecutors.put(clusterName, executor);
+			if (previous != null) {
+				previous.shutdown();
+			}
+		}
+		return astyanaxConfig;
+	}
+	
 	/**
 	 * Get keyspace holder
 	 * @param clusterName
@@ -227,16 +346,21 @@ public class TritonCassandraClient implements TritonCleaner {
 				if (holder == null) {
 					log.info("creating keyspace context for {} in {}", keyspaceName, clusterName);
 					TritonCassandraClusterConfiguration clusterConfig = getClusterConfig(clusterName);
+					CountingConnectionPoolMonitor monitor = new CountingConnectionPoolMonitor();
 					// build the astyanax context
 					AstyanaxContext<Keyspace> context = new AstyanaxContext.Builder()
 					.forCluster(clusterConfig.getName())
 					.forKeyspace(keyspaceName)
-					.withAstyanaxConfiguration(clusterConfig.getAstyanaxConfig())
+					.withAstyanaxConfiguration(getAstyanaxConfig(clusterName, clusterConfig))
 					.withConnectionPoolConfiguration(clusterConfig.getPoolConfig())
+					.withConnectionPoolMonitor(monitor)
 					.buildKeyspace(ThriftFamilyFactory.getInstance());
 					context.start();
 					holder = new KeyspaceHolder(context);
 					keyspacemap.put(key, holder);
+					jmx.register(
+							"type=CassandraPool,cluster=" + TritonJmx.quote(clusterName) + ",keyspace=" + TritonJmx.quote(keyspaceName),
+							new CassandraPoolMonitor(clusterName, keyspaceName, monitor, clusterConfig.getPoolConfig().getMaxConnsPerHost()));
 				}
 			} finally {
 				lock.unlock();
@@ -340,9 +464,10 @@ public class TritonCassandraClient implements TritonCleaner {
 	
 	/**
 	 * Get columns by {@link GetColumns} parameter.
+	 * The result is converted when the operation completes.
 	 */
 	@SuppressWarnings("unchecked")
-	public <K,C> Object getColumns(GetColumns gets) {
+	public <K,C> ListenableFuture<Object> getColumns(final GetColumns gets) {
 		
 		Keyspace keyspace = getKeyspace(gets.getCluster(), gets.getKeyspace());
 		ColumnFamily<K, C> cf = (ColumnFamily<K, C>) getColumnFamily(
@@ -350,180 +475,275 @@ public class TritonCassandraClient implements TritonCleaner {
 				gets.getKeyspace(),
 				gets.getColumnFamily()
 		);
-		Serializer<K> keySerializer = cf.getKeySerializer();
-		Serializer<C> columnSerializer = cf.getColumnSerializer();
-		Serializer<?> valueSerializer = cf.getDefaultValueSerializer();
+		final Serializer<K> keySerializer = cf.getKeySerializer();
+		final Serializer<C> columnSerializer = cf.getColumnSerializer();
+		final Serializer<?> valueSerializer = cf.getDefaultValueSerializer();
 		
-		try {
-			ColumnFamilyQuery<K, C> query = keyspace.prepareQuery(cf);
-			if (gets.getConsitency() != null) {
-				query.setConsistencyLevel(CassandraConverter.consistency(gets.getConsitency()));
-			}
-			if (gets.isSingleKey()) {
-				// Single key query
-				K key = CassandraConverter.toObject(gets.getKeys().asText(), keySerializer);
-				RowQuery<K, C> row = query.getKey(key);
-				Map<String, JsonNode> map;
-				List<CassandraColumn<C>> list;
-				if (gets.hasColumns()) {
-					JsonNode columns = gets.getColumns();
-					if (gets.hasColumnRange()) {
-						// set range query
-						ByteBufferRange range = createRange(columns, columnSerializer);
-						row.withColumnRange(range);
-					} else {
-						// set columns
-						List<C> slice = CassandraConverter.toObjectList(gets.getColumns(), columnSerializer);
-						row.withColumnSlice(slice);
-					}
+		ColumnFamilyQuery<K, C> query = keyspace.prepareQuery(cf);
+		if (gets.getConsitency() != null) {
+			query.setConsistencyLevel(CassandraConverter.consistency(gets.getConsitency()));
+		}
+		if (gets.isSingleKey()) {
+			// Single key query
+			K key = CassandraConverter.toObject(gets.getKeys().asText(), keySerializer);
+			final CassandraCache cache = getCache(gets.getCluster(), gets.getKeyspace(), gets.getColumnFamily());
+			final String cacheKey = cache == null ? null : CassandraCache.keyOf(keySerializer, key);
+			// results read with a weaker consistency are not returned for a stronger one
+			final String cacheSlice = (gets.getConsitency() == null ? "" : gets.getConsitency().name())
+					+ ":" + (gets.hasColumns() ? gets.getColumns().toString() : "");
+			final long version;
+			if (cache != null) {
+				CassandraCache.CachedSlice cached = cache.get(cacheKey, cacheSlice);
+				if (cached != null) {
+					return Futures.immediateFuture(cached.getValue());
 				}
-				// get column list
-				ColumnList<C> columns = row.execute().getResult();
-				if (gets.hasSingleColumn()) {
-					if (columns.size() <= 0) {
-						return null;
-					}
-					Column<C> column = columns.getColumnByIndex(0);
-					if (column == null) {
-						return null;
-					}
-					return CassandraConverter.toValueNode(
-							column.getByteArrayValue(),
-							valueSerializer
-					);
-				} else if (gets.hasColumnRange()) {
-					list = new ArrayList<>(columns.size());
-					for (Column<C> column : columns) {
-						// add to list
-						JsonNode valueNode = CassandraConverter.toValueNode(
-								column.getByteArrayValue(),
-								valueSerializer);
-						list.add(new CassandraColumn<C>(
-								column.getName(),
-								valueNode,
-								column.getTimestamp()
-								));
-					}
-					return list;
+				version = cache.version(cacheKey);
+			} else {
+				version = 0L;
+			}
+			RowQuery<K, C> row = query.getKey(key);
+			if (gets.hasColumns()) {
+				JsonNode columns = gets.getColumns();
+				if (gets.hasColumnRange()) {
+					// set range query
+					ByteBufferRange range = createRange(columns, columnSerializer);
+					row.withColumnRange(range);
 				} else {
-					if (columns.size() == 0) {
-						return null;
-					}
-					map = new HashMap<>(columns.size());
-					for (Column<C> column : columns) {
-						// add to map
-						String keyText = columnSerializer.getString(column.getRawName());
-						JsonNode valueNode = CassandraConverter.toValueNode(
-								column.getByteArrayValue(),
-								valueSerializer);
-						map.put(keyText, valueNode);
+					// set columns
+					List<C> slice = CassandraConverter.toObjectList(gets.getColumns(), columnSerializer);
+					row.withColumnSlice(slice);
+				}
+			}
+			// get column list
+			return executeAsync(row, new Function<ColumnList<C>, Object>() {
+				@Override
+				public Object apply(ColumnList<C> columns) {
+					Object result = toColumnsResult(gets, columns, columnSerializer, valueSerializer);
+					if (cache != null) {
+						cache.put(cacheKey, cacheSlice, result, sizeOf(columns), version);
 					}
-					return map;
+					return result;
+				}
+			});
+			
+		} else {
+			
+			// multiple key or range key query
+			
+			RowSliceQuery<K, C> slice = null;
+			if (gets.hasKeyArray()) {
+				// Multiple key query
+				List<K> keys = CassandraConverter.toObjectList(
+						gets.getKeys(),
+						cf.getKeySerializer());
+				slice = query.getKeySlice(keys);
+			} else if (gets.hasKeyRange()) {
+				// Range key query
+				// get the partitioner to calculate tokens
+				IPartitioner<? extends Token<?>> partitioner = getPartitioner(gets.getCluster());
+				// resolve token ranges
+				String startToken = null;
+				String endToken = null;
+				// get keys node
+				JsonNode keys = gets.getKeys();
+				// start token
+				startToken = getRangeToken(keys.get("start"), keySerializer, partitioner, true);
+				endToken = getRangeToken(keys.get("end"), keySerializer, partitioner, false);
+				// limit default 100
+				int limit = DEFAULT_LIMIT_ROWS;
+				if (keys.has("limit")) {
+					limit = keys.get("limit").asInt();
 				}
-				
+				// token range query
+				slice = query
+						.getRowRange(null, null, startToken, endToken, limit)
+						;
 			} else {
-				
-				// multiple key or range key query
-				
-				RowSliceQuery<K, C> slice = null;
-				if (gets.hasKeyArray()) {
-					// Multiple key query
-					List<K> keys = CassandraConverter.toObjectList(
-							gets.getKeys(),
-							cf.getKeySerializer());
-					slice = query.getKeySlice(keys);
-				} else if (gets.hasKeyRange()) {
-					// Range key query
-					// get the partitioner to calculate tokens
-					IPartitioner<? extends Token<?>> partitioner = getPartitioner(gets.getCluster());
-					// resolve token ranges
-					String startToken = null;
-					String endToken = null;
-					// get keys node
-					JsonNode keys = gets.getKeys();
-					// start token
-					startToken = getRangeToken(keys.get("start"), keySerializer, partitioner, true);
-					endToken = getRangeToken(keys.get("end"), keySerializer, partitioner, false);
-					// limit default 100
-					int limit = DEFAULT_LIMIT_ROWS;
-					if (keys.has("limit")) {
-						limit = keys.get("limit").asInt();
-					}
-					// token range query
-					slice = query
-							.getRowRange(null, null, startToken, endToken, limit)
-							;
-				} else {
-					IPartitioner<? extends Token<?>> partitioner = getPartitioner(gets.getCluster());
-					Token<?> minimumToken = partitioner.getMinimumToken();
-					String token = partitioner.getTokenFactory().toString(minimumToken);
-					slice = query.getRowRange(null, null, token, token, DEFAULT_LIMIT_ROWS);
+				IPartitioner<? extends Token<?>> partitioner = getPartitioner(gets.getCluster());
+				Token<?> minimumToken = partitioner.getMinimumToken();
+				String token = partitioner.getTokenFactory().toString(minimumToken);
+				slice = query.getRowRange(null, null, token, token, DEFAULT_LIMIT_ROWS);
+			}
+			withColumns(slice, gets, columnSerializer);
+			// get slice rows
+			return executeAsync(slice, new Function<Rows<K, C>, Object>() {
+				@Override
+				public Object apply(Rows<K, C> rows) {
+					return toRowsResult(gets, rows, keySerializer, columnSerializer, valueSerializer);
 				}
-				if (gets.hasColumns()) {
-					JsonNode columns = gets.getColumns();
-					if (gets.hasColumnRange()) {
-						// set range query
-						ByteBufferRange range = createRange(columns, columnSerializer);
-						slice.withColumnRange(range);
-					} else {
-						// set columns
-						List<C> list = CassandraConverter.toObjectList(gets.getColumns(), columnSerializer);
-						slice.withColumnSlice(list);
-					}
+			});
+		}
+	}
+	
+	/**
+	 * Convert columns of the single key to adaptive types
+	 * @param gets
+	 * @param columns
+	 * @param columnSerializer
+	 * @param valueSerializer
+	 * @return
+	 */
+	private <C> Object toColumnsResult(
+			GetColumns gets,
+			ColumnList<C> columns,
+			Serializer<C> columnSerializer,
+			Serializer<?> valueSerializer) {
+		if (gets.hasSingleColumn()) {
+			if (columns.size() <= 0) {
+				return null;
+			}
+			Column<C> column = columns.getColumnByIndex(0);
+			if (column == null) {
+				return null;
+			}
+			return CassandraConverter.toValueNode(
+					column.getByteArrayValue(),
+					valueSerializer
+			);
+		} else if (gets.hasColumnRange()) {
+			List<CassandraColumn<C>> list = new ArrayList<>(columns.size());
+			for (Column<C> column : columns) {
+				// add to list
+				JsonNode valueNode = CassandraConverter.toValueNode(
+						column.getByteArrayValue(),
+						valueSerializer);
+				list.add(new CassandraColumn<C>(
+						column.getName(),
+						valueNode,
+						column.getTimestamp()
+						));
+			}
+			return list;
+		} else {
+			if (columns.size() == 0) {
+				return null;
+			}
+			Map<String, JsonNode> map = new HashMap<>(columns.size());
+			for (Column<C> column : columns) {
+				// add to map
+				String keyText = columnSerializer.getString(column.getRawName());
+				JsonNode valueNode = CassandraConverter.toValueNode(
+						column.getByteArrayValue(),
+						valueSerializer);
+				map.put(keyText, valueNode);
+			}
+			return map;
+		}
+	}
+	
+	/**
+	 * Convert rows of multiple keys or the key range to adaptive types
+	 * @param gets
+	 * @param rows
+	 * @param keySerializer
+	 * @param columnSerializer
+	 * @param valueSerializer
+	 * @return
+	 */
+	private <K,C> Object toRowsResult(
+			GetColumns gets,
+			Rows<K, C> rows,
+			Serializer<K> keySerializer,
+			Serializer<C> columnSerializer,
+			Serializer<?> valueSerializer) {
+		if (gets.hasKeyRange()) {
+			// row as array if key range specified
+			return toRowList(rows, gets.hasColumnRange(), keySerializer, columnSerializer, valueSerializer);
+		}
+		// row as map if keys are array or single string
+		if (gets.hasColumnRange()) {
+			Map<String, List<CassandraColumn<C>>> maplist = new HashMap<>(rows.size());
+			for (Row<K, C> row : rows) {
+				String rowKey = CassandraConverter.toString(row.getKey(), keySerializer);
+				ColumnList<C> columns = row.getColumns();
+				if (!columns.isEmpty()) {
+					maplist.put(rowKey, CassandraConverter.toCassandraColumnList(columns, columnSerializer));
 				}
-				// get slice rows
-				Rows<K,C> rows = slice.execute().getResult();
-				
-				// convert result to adaptive types
-				if (gets.hasKeyRange()) {
-					// row as array if key range specified
-					List<CassandraRow<C>> list = new ArrayList<>();
-					if (gets.hasColumnRange()) {
-						for (Row<K, C> row : rows) {
-							ColumnList<C> columns = row.getColumns();
-							if (!columns.isEmpty()) {
-								list.add(new CassandraRow<C>(
-										CassandraConverter.toString(row.getKey(), keySerializer),
-										CassandraConverter.toCassandraColumnList(columns, columnSerializer)
-										));
-							}
-						}
-					} else {
-						for (Row<K, C> row : rows) {
-							ColumnList<C> columns = row.getColumns();
-							if (!columns.isEmpty()) {
-								list.add(new CassandraRow<C>(
-										CassandraConverter.toString(row.getKey(), keySerializer),
-										CassandraConverter.toCassandraColumnMap(columns, columnSerializer, valueSerializer)
-										));
-							}
-						}
-					}
-					return list;
-				} else {
-					// row as map if keys are array or single string
-					if (gets.hasColumnRange()) {
-						Map<String, List<CassandraColumn<C>>> maplist = new HashMap<>(rows.size());
-						for (Row<K, C> row : rows) {
-							String rowKey = CassandraConverter.toString(row.getKey(), keySerializer);
-							ColumnList<C> columns = row.getColumns();
-							if (!columns.isEmpty()) {
-								maplist.put(rowKey, CassandraConverter.toCassandraColumnList(columns, columnSerializer));
-							}
-						}
-						return maplist;
-					} else {
-						Map<String, Map<String, JsonNode>> mapmap = new HashMap<>(rows.size());
-						for (Row<K, C> row : rows) {
-							String rowKey = keySerializer.getString(keySerializer.toByteBuffer(row.getKey()));
-							ColumnList<C> columns = row.getColumns();
-							if (!columns.isEmpty()) {
-								mapmap.put(rowKey, CassandraConverter.toCassandraColumnMap(columns, columnSerializer, valueSerializer));
-							}
-						}
-						return mapmap;
-					}
+			}
+			return maplist;
+		} else {
+			Map<String, Map<String, JsonNode>> mapmap = new HashMap<>(rows.size());
+			for (Row<K, C> row : rows) {
+				String rowKey = keySerializer.getString(keySerializer.toByteBuffer(row.getKey()));
+				ColumnList<C> columns = row.getColumns();
+				if (!columns.isEmpty()) {
+					mapmap.put(rowKey, CassandraConverter.toCassandraColumnMap(columns, columnSerializer, valueSerializer));
+				}
+			}
+			return mapmap;
+		}
+	}
+	
+	/**
+	 * Stream rows of the key range by {@link GetColumns} parameter.
+	 * Rows are fetched by pages of {@link TritonCassandraConfiguration#getPageSize()}
+	 * and each page is written as the partial reply, so the whole
+	 * range is never held in memory. The next page is fetched after
+	 * the stream accepts the previous one. All rows are streamed
+	 * unless the limit is given in the key range.
+	 * @param gets
+	 * @param stream
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <K,C> void streamColumns(GetColumns gets, TritonServerStream stream) {
+		
+		if (gets.isSingleKey() || gets.hasKeyArray()) {
+			throw new TritonCassandraException(TritonErrors.body_format, "keys should be a range to stream");
+		}
+		Keyspace keyspace = getKeyspace(gets.getCluster(), gets.getKeyspace());
+		ColumnFamily<K, C> cf = (ColumnFamily<K, C>) getColumnFamily(
+				gets.getCluster(),
+				gets.getKeyspace(),
+				gets.getColumnFamily()
+		);
+		Serializer<K> keySerializer = cf.getKeySerializer();
+		Serializer<C> columnSerializer = cf.getColumnSerializer();
+		Serializer<?> valueSerializer = cf.getDefaultValueSerializer();
+		IPartitioner<? extends Token<?>> partitioner = getPartitioner(gets.getCluster());
+		TokenFactory factory = partitioner.getTokenFactory();
+		
+		String startToken;
+		String endToken;
+		// no limit by default
+		int limit = -1;
+		if (gets.hasKeyRange()) {
+			JsonNode keys = gets.getKeys();
+			startToken = getRangeToken(keys.get("start"), keySerializer, partitioner, true);
+			endToken = getRangeToken(keys.get("end"), keySerializer, partitioner, false);
+			if (keys.has("limit")) {
+				limit = keys.get("limit").asInt();
+			}
+		} else {
+			// whole ring
+			startToken = factory.toString(partitioner.getMinimumToken());
+			endToken = startToken;
+		}
+		int pageSize = config.getPageSize();
+		int count = 0;
+		try {
+			while (true) {
+				int size = limit < 0 ? pageSize : Math.min(pageSize, limit - count);
+				ColumnFamilyQuery<K, C> query = keyspace.prepareQuery(cf);
+				if (gets.getConsitency() != null) {
+					query.setConsistencyLevel(CassandraConverter.consistency(gets.getConsitency()));
+				}
+				RowSliceQuery<K, C> slice = query.getRowRange(null, null, startToken, endToken, size);
+				withColumns(slice, gets, columnSerializer);
+				Rows<K, C> rows = execute(slice);
+				count += rows.size();
+				boolean last = rows.size() < size || count == limit;
+				if (!last) {
+					// next page starts after the token of the last row
+					K lastKey = rows.getRowByIndex(rows.size() - 1).getKey();
+					startToken = factory.toString(partitioner.getToken(keySerializer.toByteBuffer(lastKey)));
+					last = startToken.equals(endToken);
 				}
+				List<CassandraRow<C>> list = toRowList(rows, gets.hasColumnRange(), keySerializer, columnSerializer, valueSerializer);
+				if (last) {
+					stream.end(list);
+					return;
+				}
+				stream.write(list);
 			}
 		} catch (ConnectionException e) {
 			throw new TritonCassandraException(
@@ -532,6 +752,240 @@ public class TritonCassandraClient implements TritonCleaner {
 		}
 	}
 	
+	/**
+	 * Set the columns or the column range of {@link GetColumns} to the query
+	 * @param slice
+	 * @param gets
+	 * @param columnSerializer
+	 */
+	private <K,C> void withColumns(RowSliceQuery<K, C> slice, GetColumns gets, Serializer<C> columnSerializer) {
+		if (gets.hasColumns()) {
+			withColumns(slice, gets.getColumns(), gets.hasColumnRange(), columnSerializer);
+		}
+	}
+	
+	/**
+	 * Set the columns or the column range to the query
+	 * @param slice
+	 * @param columns
+	 * @param columnRange true if columns are the range
+	 * @param columnSerializer
+	 */
+	private <K,C> void withColumns(RowSliceQuery<K, C> slice, JsonNode columns, boolean columnRange, Serializer<C> columnSerializer) {
+		if (columnRange) {
+			// set range query
+			ByteBufferRange range = createRange(columns, columnSerializer);
+			slice.withColumnRange(range);
+		} else {
+			// set columns
+			List<C> list = CassandraConverter.toObjectList(columns, columnSerializer);
+			slice.withColumnSlice(list);
+		}
+	}
+	
+	/**
+	 * Create the cursor which pages rows of the key range,
+	 * or columns of the single row.
+	 * @param open
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <K,C> CassandraCursor openCursor(CassandraCursorOpen open) {
+		ColumnFamily<K, C> cf = (ColumnFamily<K, C>) getColumnFamily(
+				open.getCluster(),
+				open.getKeyspace(),
+				open.getColumnFamily()
+		);
+		CassandraCursor cursor = new CassandraCursor();
+		cursor.cluster = open.getCluster();
+		cursor.keyspace = open.getKeyspace();
+		cursor.columnFamily = open.getColumnFamily();
+		cursor.consistency = open.getConsistency();
+		cursor.pageSize = open.getPageSize() > 0 ? open.getPageSize() : config.getPageSize();
+		if (open.isColumnScan()) {
+			if (!open.hasColumnRange()) {
+				throw new TritonCassandraException(TritonErrors.body_format, "columns should be a range to page columns");
+			}
+			ByteBufferRange range = createRange(open.getColumns(), cf.getColumnSerializer());
+			cursor.key = open.getKeys().asText();
+			cursor.columnStart = range.getStart();
+			cursor.columnEnd = range.getEnd();
+			cursor.reversed = range.isReversed();
+			return cursor;
+		}
+		JsonNode keys = open.getKeys();
+		if (keys != null && !keys.isNull() && !keys.isObject()) {
+			throw new TritonCassandraException(TritonErrors.body_format, "keys should be a range or a single key");
+		}
+		IPartitioner<? extends Token<?>> partitioner = getPartitioner(open.getCluster());
+		if (keys == null || keys.isNull()) {
+			// whole ring
+			cursor.startToken = partitioner.getTokenFactory().toString(partitioner.getMinimumToken());
+			cursor.endToken = cursor.startToken;
+		} else {
+			cursor.startToken = getRangeToken(keys.get("start"), cf.getKeySerializer(), partitioner, true);
+			cursor.endToken = getRangeToken(keys.get("end"), cf.getKeySerializer(), partitioner, false);
+			if (keys.has("limit")) {
+				cursor.remaining = keys.get("limit").asInt();
+			}
+		}
+		if (open.getColumns() != null && !open.getColumns().isNull()) {
+			cursor.columns = open.getColumns();
+			cursor.columnRange = open.hasColumnRange();
+		}
+		return cursor;
+	}
+	
+	/**
+	 * Fetch the next page of the cursor and advance the cursor
+	 * @param cursor
+	 * @return
+	 */
+	public CassandraCursor.Page fetch(CassandraCursor cursor) {
+		try {
+			if (cursor.isColumnScan()) {
+				return fetchColumns(cursor);
+			} else {
+				return fetchRows(cursor);
+			}
+		} catch (ConnectionException e) {
+			throw new TritonCassandraException(
+					TritonErrors.cassandra_connection_fail,
+					e);
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private <K,C> CassandraCursor.Page fetchRows(CassandraCursor cursor) throws ConnectionException {
+		Keyspace keyspace = getKeyspace(cursor.cluster, cursor.keyspace);
+		ColumnFamily<K, C> cf = (ColumnFamily<K, C>) getColumnFamily(cursor.cluster, cursor.keyspace, cursor.columnFamily);
+		Serializer<K> keySerializer = cf.getKeySerializer();
+		IPartitioner<? extends Token<?>> partitioner = getPartitioner(cursor.cluster);
+		int size = cursor.remaining < 0 ? cursor.pageSize : Math.min(cursor.pageSize, cursor.remaining);
+		Rows<K, C> rows;
+		try {
+			rows = execute(prepareRowRange(keyspace, cf, cursor, size));
+		} catch (NoAvailableHostsException e) {
+			if (cursor.host == null) {
+				throw e;
+			}
+			// replica is not in the pool. let the pool choose the host
+			log.debug("{} is not available for the range scan", cursor.host);
+			cursor.host = null;
+			rows = execute(prepareRowRange(keyspace, cf, cursor, size));
+		}
+		long bytes = 0L;
+		for (Row<K, C> row : rows) {
+			bytes += sizeOf(row.getColumns());
+		}
+		if (cursor.remaining > 0) {
+			cursor.remaining = Math.max(0, cursor.remaining - rows.size());
+		}
+		boolean last = rows.size() < size || cursor.remaining == 0;
+		if (!last) {
+			// next page starts after the token of the last row
+			K lastKey = rows.getRowByIndex(rows.size() - 1).getKey();
+			TokenFactory factory = partitioner.getTokenFactory();
+			cursor.startToken = factory.toString(partitioner.getToken(keySerializer.toByteBuffer(lastKey)));
+			last = cursor.startToken.equals(cursor.endToken);
+		}
+		List<CassandraRow<C>> list = toRowList(rows, cursor.columnRange,
+				keySerializer, cf.getColumnSerializer(), cf.getDefaultValueSerializer());
+		return new CassandraCursor.Page(list, bytes, last);
+	}
+	
+	private <K,C> RowSliceQuery<K, C> prepareRowRange(Keyspace keyspace, ColumnFamily<K, C> cf, CassandraCursor cursor, int size) {
+		ColumnFamilyQuery<K, C> query = keyspace.prepareQuery(cf);
+		if (cursor.consistency != null) {
+			query.setConsistencyLevel(CassandraConverter.consistency(cursor.consistency));
+		}
+		if (cursor.host != null) {
+			query.pinToHost(cursor.host);
+		}
+		RowSliceQuery<K, C> slice = query.getRowRange(null, null, cursor.startToken, cursor.endToken, size);
+		if (cursor.columns != null) {
+			withColumns(slice, cursor.columns, cursor.columnRange, cf.getColumnSerializer());
+		}
+		return slice;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <K,C> CassandraCursor.Page fetchColumns(CassandraCursor cursor) throws ConnectionException {
+		Keyspace keyspace = getKeyspace(cursor.cluster, cursor.keyspace);
+		ColumnFamily<K, C> cf = (ColumnFamily<K, C>) getColumnFamily(cursor.cluster, cursor.keyspace, cursor.columnFamily);
+		// fetch one more column to skip the last one of the previous page
+		int size = cursor.skipFirst ? cursor.pageSize + 1 : cursor.pageSize;
+		ColumnFamilyQuery<K, C> query = keyspace.prepareQuery(cf);
+		if (cursor.consistency != null) {
+			query.setConsistencyLevel(CassandraConverter.consistency(cursor.consistency));
+		}
+		RowQuery<K, C> row = query
+				.getKey(CassandraConverter.toObject(cursor.key, cf.getKeySerializer()))
+				.withColumnRange(new ByteBufferRangeImpl(cursor.columnStart, cursor.columnEnd, size, cursor.reversed));
+		ColumnList<C> columns = execute(row);
+		List<CassandraColumn<C>> list = CassandraConverter.toCassandraColumnList(columns, cf.getColumnSerializer());
+		if (cursor.skipFirst && !columns.isEmpty()
+				&& columns.getColumnByIndex(0).getRawName().equals(cursor.columnStart)) {
+			list.remove(0);
+		}
+		boolean last = columns.size() < size;
+		if (!columns.isEmpty()) {
+			// next page starts from the last column
+			cursor.columnStart = columns.getColumnByIndex(columns.size() - 1).getRawName();
+			cursor.skipFirst = true;
+		}
+		return new CassandraCursor.Page(list, sizeOf(columns), last);
+	}
+	
+	/**
+	 * Get raw bytes of names and values of the columns
+	 * @param columns
+	 * @return
+	 */
+	private static <C> long sizeOf(ColumnList<C> columns) {
+		long size = 0L;
+		for (Column<C> column : columns) {
+			size += column.getRawName().remaining() + column.getByteBufferValue().remaining();
+		}
+		return size;
+	}
+	
+	/**
+	 * Convert rows to the list of {@link CassandraRow}. Empty rows are skipped.
+	 * @param rows
+	 * @param columnRange true to convert columns to the list
+	 * @param keySerializer
+	 * @param columnSerializer
+	 * @param valueSerializer
+	 * @return
+	 */
+	private <K,C> List<CassandraRow<C>> toRowList(
+			Rows<K, C> rows,
+			boolean columnRange,
+			Serializer<K> keySerializer,
+			Serializer<C> columnSerializer,
+			Serializer<?> valueSerializer) {
+		List<CassandraRow<C>> list = new ArrayList<>(rows.size());
+		for (Row<K, C> row : rows) {
+			ColumnList<C> columns = row.getColumns();
+			if (columns.isEmpty()) {
+				continue;
+			}
+			if (columnRange) {
+				list.add(new CassandraRow<C>(
+						CassandraConverter.toString(row.getKey(), keySerializer),
+						CassandraConverter.toCassandraColumnList(columns, columnSerializer)
+						));
+			} else {
+				list.add(new CassandraRow<C>(
+						CassandraConverter.toString(row.getKey(), keySerializer),
+						CassandraConverter.toCassandraColumnMap(columns, columnSerializer, valueSerializer)
+						));
+			}
+		}
+		return list;
+	}
+	
 	/**
 	 * Create {@link ByteBufferRange} from {@link GetColumns} query.
 	 * @param gets
@@ -723,8 +1177,13 @@ public class TritonCassandraClient implements TritonCleaner {
 		}
 	}
 	
+	/**
+	 * Set columns by {@link SetColumns} parameter
+	 * @param sets
+	 * @return future completed with true
+	 */
 	@SuppressWarnings("unchecked")
-	public <K,C> void setColumns(SetColumns sets) {
+	public <K,C> ListenableFuture<Boolean> setColumns(SetColumns sets) {
 		
 		// get keyspace
 		Keyspace keyspace = getKeyspace(sets.getCluster(), sets.getKeyspace());
@@ -735,6 +1194,8 @@ public class TritonCassandraClient implements TritonCleaner {
 				sets.getColumnFamily()
 		);
 		Integer ttl = sets.getTtl();
+		CassandraCache cache = getCache(sets.getCluster(), sets.getKeyspace(), sets.getColumnFamily());
+		CassandraCacheInvalidation invalidation = new CassandraCacheInvalidation();
 		// mutate
 		MutationBatch batch = keyspace.prepareMutationBatch();
 		// set consistency level if specified
@@ -744,8 +1205,10 @@ public class TritonCassandraClient implements TritonCleaner {
 		for (Entry<String, Map<String, JsonNode>> row : sets.getRows().entrySet()) {
 			String rowKey = row.getKey();
 			Map<String, JsonNode> columns = row.getValue();
+			K typedKey = CassandraConverter.toObject(rowKey, cf.getKeySerializer());
+			invalidation.add(cache, cf.getKeySerializer(), typedKey);
 			// prepare column mutation
-			ColumnListMutation<C> clm = batch.withRow(cf, CassandraConverter.toObject(rowKey, cf.getKeySerializer()));
+			ColumnListMutation<C> clm = batch.withRow(cf, typedKey);
 			for (Entry<String, JsonNode> entry : columns.entrySet()) {
 				String columnKey = entry.getKey();
 				// convert string key to type
@@ -761,17 +1224,16 @@ public class TritonCassandraClient implements TritonCleaner {
 				}
 			}
 		}
-		try {
-			OperationResult<Void> result = batch.execute();
-			result.getResult();
-		} catch (ConnectionException e) {
-			throw new TritonCassandraException(TritonErrors.cassandra_connection_fail, e);
-		}
-		
+		return executeAsync(batch, invalidation);
 	}
 	
+	/**
+	 * Remove rows or columns by {@link RemoveColumns} parameter
+	 * @param remove
+	 * @return future completed with true
+	 */
 	@SuppressWarnings("unchecked")
-	public <K,C> void removeColumns(RemoveColumns remove) {
+	public <K,C> ListenableFuture<Boolean> removeColumns(RemoveColumns remove) {
 		
 		// get keyspace
 		Keyspace keyspace = getKeyspace(remove.getCluster(), remove.getKeyspace());
@@ -781,6 +1243,9 @@ public class TritonCassandraClient implements TritonCleaner {
 				remove.getKeyspace(),
 				remove.getColumnFamily());
 		
+		CassandraCache cache = getCache(remove.getCluster(), remove.getKeyspace(), remove.getColumnFamily());
+		CassandraCacheInvalidation invalidation = new CassandraCacheInvalidation();
+		
 		// prepare batch for deletion
 		MutationBatch batch = keyspace.prepareMutationBatch();
 		if (remove.getConsistency() != null) {
@@ -793,7 +1258,9 @@ public class TritonCassandraClient implements TritonCleaner {
 		// iterate keys
 		if (remove.hasKeys()) {
 			for (String key : remove.getKeys()) {
-				batch.withRow(cf, CassandraConverter.toObject(key, cf.getKeySerializer())).delete();
+				K typedKey = CassandraConverter.toObject(key, cf.getKeySerializer());
+				invalidation.add(cache, cf.getKeySerializer(), typedKey);
+				batch.withRow(cf, typedKey).delete();
 			}
 		}
 		
@@ -804,11 +1271,10 @@ public class TritonCassandraClient implements TritonCleaner {
 				// get value list
 				List<String> values = row.getValue();
 				if (values != null && values.size() > 0) {
+					K typedKey = CassandraConverter.toObject(rowKey, cf.getKeySerializer());
+					invalidation.add(cache, cf.getKeySerializer(), typedKey);
 					// prepare row mutation
-					ColumnListMutation<C> clm = batch.withRow(
-							cf,
-							CassandraConverter.toObject(rowKey, cf.getKeySerializer())
-							);
+					ColumnListMutation<C> clm = batch.withRow(cf, typedKey);
 					// remove all columns
 					for (String column : values) {
 						clm.deleteColumn(
@@ -818,11 +1284,148 @@ public class TritonCassandraClient implements TritonCleaner {
 				}
 			}
 		}
+		return executeAsync(batch, invalidation);
+	}
+	
+	/**
+	 * Execute the operation within the deadline of the request.
+	 * The operation is executed asynchronously and waited for
+	 * the remaining time if the request has the deadline.
+	 * @param execution
+	 * @return
+	 * @throws ConnectionException
+	 */
+	public <R> R execute(Execution<R> execution) throws ConnectionException {
+		long remaining = TritonDeadline.remaining(TimeUnit.MILLISECONDS);
+		if (remaining < 0) {
+			// no deadline
+			return execution.execute().getResult();
+		}
+		if (remaining == 0) {
+			throw new TritonDeadlineException("deadline exceeded");
+		}
+		Future<OperationResult<R>> future = execution.executeAsync();
+		try {
+			return future.get(remaining, TimeUnit.MILLISECONDS).getResult();
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new TritonDeadlineException("deadline exceeded in cassandra operation", e);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new TritonCassandraException(TritonErrors.cassandra_error, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ConnectionException) {
+				throw (ConnectionException) e.getCause();
+			}
+			throw new TritonCassandraException(TritonErrors.cassandra_error, e.getCause());
+		}
+	}
+	
+	/**
+	 * Execute the operation asynchronously and convert the result
+	 * on completion. The thread is not blocked while executing.
+	 * The returned future fails with {@link TritonCassandraException}
+	 * if the operation failed, and with {@link TritonDeadlineException}
+	 * when the deadline passes before the operation completes.
+	 * @param execution
+	 * @param converter converts the result of the operation
+	 * @return
+	 */
+	public <R,T> ListenableFuture<T> executeAsync(Execution<R> execution, Function<? super R, T> converter) {
+		return executeAsync(execution, converter, null);
+	}
+	
+	/**
+	 * Execute the operation asynchronously and run the listener
+	 * when the operation itself completes.
+	 * The operation with the listener is not cancelled at the deadline,
+	 * so the listener runs after the operation is applied or failed
+	 * even if the returned future has failed by the deadline.
+	 * @param execution
+	 * @param converter converts the result of the operation
+	 * @param listener run on completion of the operation. null if not required
+	 * @return
+	 */
+	private <R,T> ListenableFuture<T> executeAsync(Execution<R> execution,
+			final Function<? super R, T> converter, final Runnable listener) {
+		long remaining = TritonDeadline.remaining(TimeUnit.MILLISECONDS);
+		if (remaining == 0) {
+			throw new TritonDeadlineException("deadline exceeded");
+		}
+		final SettableFuture<T> future = SettableFuture.create();
+		final ListenableFuture<OperationResult<R>> operation;
 		try {
-			batch.execute();
+			operation = execution.executeAsync();
 		} catch (ConnectionException e) {
 			throw new TritonCassandraException(TritonErrors.cassandra_connection_fail, e);
 		}
+		if (listener != null) {
+			operation.addListener(listener, MoreExecutors.sameThreadExecutor());
+		}
+		Futures.addCallback(operation, new FutureCallback<OperationResult<R>>() {
+			@Override
+			public void onSuccess(OperationResult<R> result) {
+				try {
+					future.set(converter.apply(result.getResult()));
+				} catch (RuntimeException e) {
+					future.setException(e);
+				}
+			}
+			@Override
+			public void onFailure(Throwable t) {
+				if (t instanceof ConnectionException) {
+					future.setException(new TritonCassandraException(TritonErrors.cassandra_connection_fail, t));
+				} else {
+					future.setException(t);
+				}
+			}
+		});
+		if (remaining > 0 && !future.isDone()) {
+			// same as the blocking execution, give up the operation at the deadline
+			final ScheduledFuture<?> timeout = scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					if (future.setException(new TritonDeadlineException("deadline exceeded in cassandra operation"))
+							&& listener == null) {
+						operation.cancel(true);
+					}
+				}
+			}, remaining);
+			future.addListener(new Runnable() {
+				@Override
+				public void run() {
+					timeout.cancel(false);
+				}
+			}, MoreExecutors.sameThreadExecutor());
+		}
+		return future;
+	}
+	
+	/**
+	 * Execute the mutation batch asynchronously
+	 * @param batch
+	 * @return future completed with true
+	 */
+	public ListenableFuture<Boolean> executeAsync(MutationBatch batch) {
+		return executeAsync(batch, SUCCEEDED);
+	}
+	
+	/**
+	 * Execute the mutation batch asynchronously and invalidate
+	 * cached rows before and after the mutation
+	 * @param batch
+	 * @param invalidation rows written by the batch
+	 * @return future completed with true
+	 */
+	public ListenableFuture<Boolean> executeAsync(MutationBatch batch, CassandraCacheInvalidation invalidation) {
+		if (invalidation.isEmpty()) {
+			return executeAsync(batch);
+		}
+		// results read before the mutation is applied are not cached after this
+		invalidation.run();
+		// invalidated again when the mutation completes, even if the reply has failed by the deadline
+		return executeAsync(batch, SUCCEEDED, invalidation);
 	}
 	
 	/**
@@ -836,6 +1439,10 @@ public class TritonCassandraClient implements TritonCleaner {
 		for (KeyspaceHolder holder : keyspacemap.values()) {
 			holder.shutdown();
 		}
+		for (ExecutorService executor : asyncExecutors.values()) {
+			executor.shutdown();
+		}
+		asyncExecutors.clear();
 	}
 	
 	/**
@@ -5,9 +5,12 @@ import javax.inject.Singleton;
 
 import com.amebame.triton.server.TritonServerCleaner;
 import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.service.TritonScheduler;
+import com.amebame.triton.service.cassandra.method.TritonCassandraCacheMethods;
 import com.amebame.triton.service.cassandra.method.TritonCassandraClusterMethods;
 import com.amebame.triton.service.cassandra.method.TritonCassandraColumnFamilyMethods;
 import com.amebame.triton.service.cassandra.method.TritonCassandraColumnMethods;
+import com.amebame.triton.service.cassandra.method.TritonCassandraCursorMethods;
 import com.amebame.triton.service.cassandra.method.TritonCassandraKeyspaceMethods;
 
 @Singleton
@@ -26,6 +29,16 @@ public class TritonCassandraSetup {
 	@Inject private TritonCassandraColumnFamilyMethods columnFamilyMethods;
 	
 	@Inject private TritonCassandraColumnMethods columnMethods;
+	
+	@Inject private TritonCassandraCursorMethods cursorMethods;
+	
+	@Inject private TritonCassandraCacheMethods cacheMethods;
+	
+	@Inject private CassandraCursorManager cursorManager;
+	
+	@Inject private CassandraScanner scanner;
+	
+	@Inject private TritonScheduler scheduler;
 
 	public TritonCassandraSetup() {
 	}
@@ -33,10 +46,16 @@ public class TritonCassandraSetup {
 	@Inject
 	public void setup() {
 		cleaner.add(client);
+		cleaner.add(scanner);
 		context.addServerMethod(clusterMethods);
 		context.addServerMethod(keyspaceMethods);
 		context.addServerMethod(columnFamilyMethods);
 		context.addServerMethod(columnMethods);
+		context.addServerMethod(cursorMethods);
+		context.addServerMethod(cacheMethods);
+		context.addChannelListener(cursorManager);
+		// close idle cursors with 5 sec interval
+		scheduler.scheduleWithFixedDelay(cursorManager, 5000L, 5000L);
 	}
 
 }
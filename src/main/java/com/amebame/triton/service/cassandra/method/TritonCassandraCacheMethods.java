@@ -0,0 +1,30 @@
+package com.amebame.triton.service.cassandra.method;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.service.cassandra.CassandraCache;
+import com.amebame.triton.service.cassandra.TritonCassandraClient;
+
+public class TritonCassandraCacheMethods {
+	
+	private TritonCassandraClient client;
+
+	@Inject
+	public TritonCassandraCacheMethods(TritonCassandraClient client) {
+		this.client = client;
+	}
+	
+	/**
+	 * Get statistics of result caches
+	 * @return
+	 */
+	@TritonMethod("cassandra.cache.stats")
+	public List<CassandraCache> getStats() {
+		return new ArrayList<>(client.getCaches());
+	}
+	
+}
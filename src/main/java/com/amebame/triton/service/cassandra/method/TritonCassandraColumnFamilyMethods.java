@@ -16,11 +16,19 @@ import com.amebame.triton.client.cassandra.method.ListColumnFamily;
 import com.amebame.triton.client.cassandra.method.TruncateColumnFamily;
 import com.amebame.triton.exception.TritonErrors;
 import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.server.TritonServerRequest;
+import com.amebame.triton.server.TritonServerStream;
+import com.amebame.triton.service.cassandra.CassandraCache;
+import com.amebame.triton.service.cassandra.CassandraCacheInvalidation;
 import com.amebame.triton.service.cassandra.CassandraConverter;
+import com.amebame.triton.service.cassandra.CassandraScan;
+import com.amebame.triton.service.cassandra.CassandraScanner;
 import com.amebame.triton.service.cassandra.Serializers;
 import com.amebame.triton.service.cassandra.TritonCassandraClient;
 import com.amebame.triton.service.cassandra.TritonCassandraException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.astyanax.ColumnListMutation;
 import com.netflix.astyanax.Keyspace;
 import com.netflix.astyanax.MutationBatch;
@@ -33,10 +41,13 @@ import com.netflix.astyanax.model.ColumnFamily;
 public class TritonCassandraColumnFamilyMethods {
 	
 	private TritonCassandraClient client;
+	
+	private CassandraScanner scanner;
 
 	@Inject
-	public TritonCassandraColumnFamilyMethods(TritonCassandraClient client) {
+	public TritonCassandraColumnFamilyMethods(TritonCassandraClient client, CassandraScanner scanner) {
 		this.client = client;
+		this.scanner = scanner;
 	}
 
 	/**
@@ -85,11 +96,20 @@ public class TritonCassandraColumnFamilyMethods {
 	@TritonMethod("cassandra.columnfamily.truncate")
 	public boolean truncateColumnFamily(TruncateColumnFamily truncate) {
 		Keyspace keyspace = client.getKeyspace(truncate.getCluster(), truncate.getKeyspace());
+		CassandraCache cache = client.getCache(truncate.getCluster(), truncate.getKeyspace(), truncate.getColumnFamily());
+		if (cache != null) {
+			cache.invalidateAll();
+		}
 		try {
 			OperationResult<Void> result = keyspace.truncateColumnFamily(truncate.getColumnFamily());
 			return result != null;
 		} catch (ConnectionException e) {
 			throw new TritonCassandraException(TritonErrors.cassandra_connection_fail, e);
+		} finally {
+			if (cache != null) {
+				// drop results read while truncating
+				cache.invalidateAll();
+			}
 		}
 	}
 	
@@ -109,6 +129,17 @@ public class TritonCassandraColumnFamilyMethods {
 		}
 	}
 	
+	/**
+	 * Scan all rows of the column family in parallel by token ranges.
+	 * Rows are replied as partial replies or written to the file.
+	 * @param request
+	 * @param scan
+	 */
+	@TritonMethod(value="cassandra.columnfamily.scan", async=true)
+	public void scan(TritonServerRequest request, CassandraScan scan) {
+		scanner.scan(scan, new TritonServerStream(request));
+	}
+	
 	/**
 	 * Execute batch operations.
 	 * @param batch
@@ -116,103 +147,96 @@ public class TritonCassandraColumnFamilyMethods {
 	 */
 	@SuppressWarnings("unchecked")
 	@TritonMethod("cassandra.columnfamily.batch")
-	public <K,C,V> boolean batch(BatchUpdate update) {
+	public <K,C,V> ListenableFuture<Boolean> batch(BatchUpdate update) {
 		
-		try {
-			
-			// return if empty operations
-			if (!update.hasOperations()) {
-				return false;
-			}
+		// return if empty operations
+		if (!update.hasOperations()) {
+			return Futures.immediateFuture(false);
+		}
+		
+		// get the keyspace
+		Keyspace keyspace = client.getKeyspace(update.getCluster(), update.getKeyspace());
+		
+		// prepare for atomic batch
+		MutationBatch batch = keyspace.prepareMutationBatch();
+		
+		// rows of cached column families
+		CassandraCacheInvalidation invalidation = new CassandraCacheInvalidation();
+		
+		// set consistency
+		if (update.getConsistency() != null) {
+			batch.setConsistencyLevel(CassandraConverter.consistency(update.getConsistency()));
+		}
+		
+		for (TritonCassandraBatchOperation operation : update.getOperations()) {
 			
-			// get the keyspace
-			Keyspace keyspace = client.getKeyspace(update.getCluster(), update.getKeyspace());
+			String family = operation.getColumnFamily();
+			ColumnFamily<K, C> columnFamily = (ColumnFamily<K, C>) client.getColumnFamily(
+					update.getCluster(),
+					update.getKeyspace(),
+					family);
 			
-			// prepare for atomic batch
-			MutationBatch batch = keyspace.prepareMutationBatch();
+			Serializer<C> columnSerializer = columnFamily.getColumnSerializer();
+			Serializer<K> keySerializer = columnFamily.getKeySerializer();
+			Serializer<V> valueSerializer = (Serializer<V>) columnFamily.getDefaultValueSerializer();
+			CassandraCache cache = client.getCache(update.getCluster(), update.getKeyspace(), family);
 			
-			// set consistency
-			if (update.getConsistency() != null) {
-				batch.setConsistencyLevel(CassandraConverter.consistency(update.getConsistency()));
-			}
+			Map<String, Map<String, JsonNode>> updates = operation.getUpdates();
+			Map<String, JsonNode> removes = operation.getRemoves();
 			
-			for (TritonCassandraBatchOperation operation : update.getOperations()) {
-				
-				String family = operation.getColumnFamily();
-				ColumnFamily<K, C> columnFamily = (ColumnFamily<K, C>) client.getColumnFamily(
-						update.getCluster(),
-						update.getKeyspace(),
-						family);
-				
-				Serializer<C> columnSerializer = columnFamily.getColumnSerializer();
-				Serializer<K> keySerializer = columnFamily.getKeySerializer();
-				Serializer<V> valueSerializer = (Serializer<V>) columnFamily.getDefaultValueSerializer();
-				
-				Map<String, Map<String, JsonNode>> updates = operation.getUpdates();
-				Map<String, JsonNode> removes = operation.getRemoves();
-				
-				if (!(updates == null || updates.isEmpty())) {
-					// execute updates
-					for (Entry<String, Map<String, JsonNode>> rowEntry : updates.entrySet()) {
-						String key = rowEntry.getKey();
-						ColumnListMutation<C> mutation = batch.withRow(
-								columnFamily,
-								CassandraConverter.toObject(key, keySerializer)
-								);
-						for (Entry<String, JsonNode> columnEntry : rowEntry.getValue().entrySet()) {
-							C column = CassandraConverter.toObject(columnEntry.getKey(), columnSerializer);
-							if (operation.hasTtl()) {
-								mutation.putColumn(
-										column,
-										CassandraConverter.toValueBuffer(
-												columnEntry.getValue(),
-												valueSerializer
-										),
-										operation.getTtl()
-										);
-							} else {
-								mutation.putColumn(
-										column,
-										CassandraConverter.toValueBuffer(
-												columnEntry.getValue(),
-												valueSerializer
-												)
-										);
-							}
+			if (!(updates == null || updates.isEmpty())) {
+				// execute updates
+				for (Entry<String, Map<String, JsonNode>> rowEntry : updates.entrySet()) {
+					K key = CassandraConverter.toObject(rowEntry.getKey(), keySerializer);
+					invalidation.add(cache, keySerializer, key);
+					ColumnListMutation<C> mutation = batch.withRow(columnFamily, key);
+					for (Entry<String, JsonNode> columnEntry : rowEntry.getValue().entrySet()) {
+						C column = CassandraConverter.toObject(columnEntry.getKey(), columnSerializer);
+						if (operation.hasTtl()) {
+							mutation.putColumn(
+									column,
+									CassandraConverter.toValueBuffer(
+											columnEntry.getValue(),
+											valueSerializer
+									),
+									operation.getTtl()
+									);
+						} else {
+							mutation.putColumn(
+									column,
+									CassandraConverter.toValueBuffer(
+											columnEntry.getValue(),
+											valueSerializer
+											)
+									);
 						}
 					}
 				}
-				
-				if (!(removes == null || removes.isEmpty())) {
-					// execute removes
-					for (Entry<String, JsonNode> removeEntry : removes.entrySet()) {
-						String key = removeEntry.getKey();
-						JsonNode value = removeEntry.getValue();
-						ColumnListMutation<C> mutation = batch.withRow(
-								columnFamily,
-								CassandraConverter.toObject(key, keySerializer));
-						if (value.isArray()) {
-							int size = value.size();
-							for (int i = 0; i < size; i++) {
-								String column = value.get(i).asText();
-								mutation.deleteColumn(CassandraConverter.toObject(column, columnSerializer));
-							}
-						} else {
-							mutation.delete();
+			}
+			
+			if (!(removes == null || removes.isEmpty())) {
+				// execute removes
+				for (Entry<String, JsonNode> removeEntry : removes.entrySet()) {
+					K key = CassandraConverter.toObject(removeEntry.getKey(), keySerializer);
+					JsonNode value = removeEntry.getValue();
+					invalidation.add(cache, keySerializer, key);
+					ColumnListMutation<C> mutation = batch.withRow(columnFamily, key);
+					if (value.isArray()) {
+						int size = value.size();
+						for (int i = 0; i < size; i++) {
+							String column = value.get(i).asText();
+							mutation.deleteColumn(CassandraConverter.toObject(column, columnSerializer));
 						}
+					} else {
+						mutation.delete();
 					}
 				}
-				
 			}
 			
-			// execute atomic batches
-			batch.execute();
-			
-		} catch (ConnectionException e) {
-			throw new TritonCassandraException(TritonErrors.cassandra_connection_fail, e);
 		}
 		
-		return true;
+		// execute atomic batches
+		return client.executeAsync(batch, invalidation);
 	}
 	
 }
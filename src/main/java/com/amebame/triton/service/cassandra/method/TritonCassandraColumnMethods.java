@@ -6,7 +6,10 @@ import com.amebame.triton.client.cassandra.method.GetColumns;
 import com.amebame.triton.client.cassandra.method.RemoveColumns;
 import com.amebame.triton.client.cassandra.method.SetColumns;
 import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.server.TritonServerRequest;
+import com.amebame.triton.server.TritonServerStream;
 import com.amebame.triton.service.cassandra.TritonCassandraClient;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class TritonCassandraColumnMethods {
 	
@@ -18,19 +21,27 @@ public class TritonCassandraColumnMethods {
 	}
 
 	@TritonMethod("cassandra.column.set")
-	public boolean setColumns(SetColumns sets) {
-		client.setColumns(sets);
-		return true;
+	public ListenableFuture<Boolean> setColumns(SetColumns sets) {
+		return client.setColumns(sets);
 	}
 	
 	@TritonMethod("cassandra.column.get")
-	public Object getColumns(GetColumns gets) {
+	public ListenableFuture<Object> getColumns(GetColumns gets) {
 		return client.getColumns(gets);
 	}
 	
+	/**
+	 * Stream rows of the key range as partial replies
+	 * @param request
+	 * @param gets
+	 */
+	@TritonMethod(value="cassandra.column.stream", async=true)
+	public void streamColumns(TritonServerRequest request, GetColumns gets) {
+		client.streamColumns(gets, new TritonServerStream(request));
+	}
+	
 	@TritonMethod("cassandra.column.remove")
-	public boolean removeColumns(RemoveColumns removes) {
-		client.removeColumns(removes);
-		return true;
+	public ListenableFuture<Boolean> removeColumns(RemoveColumns removes) {
+		return client.removeColumns(removes);
 	}
 }
@@ -0,0 +1,64 @@
+package com.amebame.triton.service.cassandra.method;
+
+import javax.inject.Inject;
+
+import org.jboss.netty.channel.Channel;
+
+import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.service.cassandra.CassandraCursorManager;
+import com.amebame.triton.service.cassandra.CassandraCursorOpen;
+import com.amebame.triton.service.cassandra.CassandraCursorPage;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class TritonCassandraCursorMethods {
+	
+	private static final String CURSOR = "cursor";
+	
+	private CassandraCursorManager manager;
+
+	@Inject
+	public TritonCassandraCursorMethods(CassandraCursorManager manager) {
+		this.manager = manager;
+	}
+	
+	/**
+	 * Open the cursor and get the first page.
+	 * The cursor can be used only from the same connection.
+	 * @param channel
+	 * @param open
+	 * @return
+	 */
+	@TritonMethod("cassandra.cursor.open")
+	public CassandraCursorPage open(Channel channel, CassandraCursorOpen open) {
+		return manager.open(channel, open);
+	}
+	
+	/**
+	 * Get the next page of the cursor
+	 * @param channel
+	 * @param body {"cursor": id}
+	 * @return
+	 */
+	@TritonMethod("cassandra.cursor.next")
+	public CassandraCursorPage next(Channel channel, JsonNode body) {
+		return manager.next(channel, cursorOf(body));
+	}
+	
+	/**
+	 * Close the cursor before reaching the last page
+	 * @param channel
+	 * @param body {"cursor": id}
+	 * @return
+	 */
+	@TritonMethod(value="cassandra.cursor.close", inline=true)
+	public boolean close(Channel channel, JsonNode body) {
+		return manager.close(channel, cursorOf(body));
+	}
+	
+	private static String cursorOf(JsonNode body) {
+		if (body == null || !body.has(CURSOR)) {
+			return null;
+		}
+		return body.get(CURSOR).asText();
+	}
+}
@@ -0,0 +1,18 @@
+package com.amebame.triton.service.lock;
+
+/**
+ * Health of the lock table
+ */
+public interface LockMXBean {
+	
+	int getLocks();
+	
+	int getLocksHeld();
+	
+	int getWaiting();
+	
+	long getLockCount();
+	
+	long getUnlockCount();
+
+}
@@ -0,0 +1,51 @@
+package com.amebame.triton.service.lock;
+
+import com.amebame.triton.service.lock.LockManager.Lock;
+
+/**
+ * MBean of the lock table in {@link LockManager}
+ */
+public class LockMonitor implements LockMXBean {
+	
+	private LockManager manager;
+	
+	public LockMonitor(LockManager manager) {
+		this.manager = manager;
+	}
+	
+	@Override
+	public int getLocks() {
+		return manager.getLocks().size();
+	}
+	
+	@Override
+	public int getLocksHeld() {
+		int held = 0;
+		for (Lock lock : manager.getLocks()) {
+			if (lock.getCurrentOwner() != null) {
+				held++;
+			}
+		}
+		return held;
+	}
+	
+	@Override
+	public int getWaiting() {
+		int waiting = 0;
+		for (Lock lock : manager.getLocks()) {
+			waiting += lock.getWaiterSize();
+		}
+		return waiting;
+	}
+	
+	@Override
+	public long getLockCount() {
+		return manager.getMetrics().getLocks();
+	}
+	
+	@Override
+	public long getUnlockCount() {
+		return manager.getMetrics().getUnlocks();
+	}
+
+}
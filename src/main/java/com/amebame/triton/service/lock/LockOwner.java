@@ -14,7 +14,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFuture;
 
-import com.amebame.triton.protocol.TritonMessage;
+import com.amebame.triton.server.TritonServerRequest;
+import com.amebame.triton.server.TritonWriteAggregator;
+import com.amebame.triton.server.protocol.TritonFrame;
+import com.amebame.triton.server.protocol.TritonServerReply;
 
 /**
  * Lock Owner
@@ -26,6 +29,9 @@ public class LockOwner implements Comparable<LockOwner> {
 	// Channel
 	private Channel channel;
 
+	// Request waiting for the lock. null if the owner releases
+	private TritonServerRequest request;
+
 	// OwnerID
 	private int ownerId;
 	
@@ -37,6 +43,17 @@ public class LockOwner implements Comparable<LockOwner> {
 
 	public LockOwner(Channel channel, int callId) {
 		this(channel, callId, 0);
+	}
+	
+	/**
+	 * Create the owner which replies to the request when acquired.
+	 * Replies are sent through the request, so the owner can also
+	 * wait in the sub call of triton.multi.
+	 * @param request
+	 */
+	public LockOwner(TritonServerRequest request) {
+		this(request.getChannel(), request.getCallId(), 0);
+		this.request = request;
 	}
 	
 	public LockOwner(Channel channel, int callId, int ownerId) {
@@ -73,11 +90,12 @@ public class LockOwner implements Comparable<LockOwner> {
 	 * @return
 	 */
 	public boolean sendReady() {
-		TritonMessage message = new TritonMessage(TritonMessage.REPLY, callId, ownerId);
 		if (!channel.isOpen()) {
 			return false;
 		}
-		ChannelFuture future = channel.write(message);
+		ChannelFuture future = send(ownerId);
+		// do not wait for coalesced replies
+		TritonWriteAggregator.flush(channel);
 		try {
 			if (future.await(1000L)) {
 				return future.isSuccess();
@@ -95,8 +113,9 @@ public class LockOwner implements Comparable<LockOwner> {
 		if (!channel.isWritable()) {
 			return false;
 		}
-		TritonMessage message = new TritonMessage(TritonMessage.REPLY, callId, -1);
-		ChannelFuture future = channel.write(message);
+		ChannelFuture future = send(-1);
+		// do not wait for coalesced replies
+		TritonWriteAggregator.flush(channel);
 		try {
 			if (future.await(1000L)) {
 				return future.isSuccess();
@@ -104,6 +123,18 @@ public class LockOwner implements Comparable<LockOwner> {
 		} catch (InterruptedException e) {
 		}
 		return false;
+	}
+	
+	/**
+	 * Write the reply to the request or to the channel
+	 * @param body
+	 * @return
+	 */
+	private ChannelFuture send(int body) {
+		if (request != null) {
+			return request.sendReply(body);
+		}
+		return channel.write(new TritonServerReply(TritonFrame.REPLY, callId, body));
 	}
 	
 	@Override
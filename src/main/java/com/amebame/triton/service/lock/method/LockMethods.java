@@ -8,6 +8,7 @@ import com.amebame.triton.client.lock.method.LockAcquire;
 import com.amebame.triton.client.lock.method.LockRelease;
 import com.amebame.triton.protocol.TritonMessage;
 import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.server.TritonServerRequest;
 import com.amebame.triton.service.lock.LockManager;
 import com.amebame.triton.service.lock.LockOwner;
 
@@ -21,8 +22,8 @@ public class LockMethods {
 	}
 	
 	@TritonMethod(value="lock.acquire", async=true)
-	public void acquire(Channel channel, TritonMessage message, LockAcquire acquire) {
-		LockOwner owner = new LockOwner(channel, message.getCallId());
+	public void acquire(TritonServerRequest request, LockAcquire acquire) {
+		LockOwner owner = new LockOwner(request);
 		manager.lock(owner, acquire.getKey(), acquire.getTimeout());
 	}
 	
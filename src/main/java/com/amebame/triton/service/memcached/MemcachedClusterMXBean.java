@@ -0,0 +1,18 @@
+package com.amebame.triton.service.memcached;
+
+/**
+ * Health of the memcached cluster connections
+ */
+public interface MemcachedClusterMXBean {
+	
+	String getCluster();
+	
+	int getServers();
+	
+	int getAvailableServers();
+	
+	int getSessions();
+	
+	int getPendingReconnects();
+
+}
@@ -0,0 +1,47 @@
+package com.amebame.triton.service.memcached;
+
+import net.rubyeye.xmemcached.MemcachedClient;
+
+/**
+ * MBean of the xmemcached client of the cluster
+ */
+public class MemcachedClusterMonitor implements MemcachedClusterMXBean {
+	
+	private String cluster;
+	
+	private int servers;
+	
+	private MemcachedClient client;
+	
+	public MemcachedClusterMonitor(String cluster, int servers, MemcachedClient client) {
+		this.cluster = cluster;
+		this.servers = servers;
+		this.client = client;
+	}
+	
+	@Override
+	public String getCluster() {
+		return cluster;
+	}
+	
+	@Override
+	public int getServers() {
+		return servers;
+	}
+	
+	@Override
+	public int getAvailableServers() {
+		return client.getAvailableServers().size();
+	}
+	
+	@Override
+	public int getSessions() {
+		return client.getConnector().getSessionSet().size();
+	}
+	
+	@Override
+	public int getPendingReconnects() {
+		return client.getConnector().getReconnectRequestQueue().size();
+	}
+
+}
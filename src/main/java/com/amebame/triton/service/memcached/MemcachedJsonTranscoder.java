@@ -4,22 +4,41 @@ import net.rubyeye.xmemcached.transcoders.CachedData;
 import net.rubyeye.xmemcached.transcoders.PrimitiveTypeTranscoder;
 
 import com.amebame.triton.json.Json;
+import com.amebame.triton.server.util.ServerJson;
 import com.fasterxml.jackson.databind.JsonNode;
 
+/**
+ * Transcoder to store {@link JsonNode} as JSON text or Smile.
+ * Smile values are marked by the flag and are detected by
+ * the header, so values of both formats can be read.
+ */
 public class MemcachedJsonTranscoder extends PrimitiveTypeTranscoder<JsonNode> {
+	
+	// flag of values stored with Smile
+	public static final int SMILE_FLAG = 0x0100;
+	
+	private boolean smile;
 
 	public MemcachedJsonTranscoder() {
+		this(false);
+	}
+	
+	public MemcachedJsonTranscoder(boolean smile) {
+		this.smile = smile;
 	}
 
 	@Override
 	public CachedData encode(JsonNode o) {
+		if (smile) {
+			return new CachedData(SMILE_FLAG, ServerJson.smile(o));
+		}
 		CachedData data = new CachedData(0, Json.bytes(o));
 		return data;
 	}
 
 	@Override
 	public JsonNode decode(CachedData d) {
-		return Json.tree(d.getData());
+		return ServerJson.tree(d.getData());
 	}
 
 }
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import javax.inject.Inject;
@@ -26,6 +27,8 @@ import com.amebame.triton.config.TritonMemcachedConfiguration;
 import com.amebame.triton.config.TritonMemcachedLocator;
 import com.amebame.triton.exception.TritonErrors;
 import com.amebame.triton.server.TritonCleaner;
+import com.amebame.triton.server.TritonDeadline;
+import com.amebame.triton.server.jmx.TritonJmx;
 import com.fasterxml.jackson.databind.JsonNode;
 
 public class TritonMemcachedClient implements TritonCleaner {
@@ -36,18 +39,22 @@ public class TritonMemcachedClient implements TritonCleaner {
 	
 	private Map<String, MemcachedClient> clients;
 	
-	private MemcachedJsonTranscoder transcoder = new MemcachedJsonTranscoder();
+	private MemcachedJsonTranscoder transcoder;
 	
 	@Inject
-	public TritonMemcachedClient(TritonMemcachedConfiguration config) throws IOException {
+	public TritonMemcachedClient(TritonMemcachedConfiguration config, TritonJmx jmx) throws IOException {
 		this.config = config;
 		this.clients = new HashMap<>();
+		this.transcoder = new MemcachedJsonTranscoder(config.isSmile());
 		// creating cluster configuration
 		for (Entry<String, TritonMemcachedClusterConfiguration> entry : config.getClusters().entrySet()) {
 			String clusterKey = entry.getKey();
 			TritonMemcachedClusterConfiguration  clusterConfig = entry.getValue();
 			MemcachedClient client = createClient(clusterKey, clusterConfig);
 			clients.put(clusterKey, client);
+			jmx.register(
+					"type=MemcachedCluster,cluster=" + TritonJmx.quote(clusterKey),
+					new MemcachedClusterMonitor(clusterKey, clusterConfig.getHosts().length, client));
 		}
 	}
 	
@@ -89,7 +96,7 @@ public class TritonMemcachedClient implements TritonCleaner {
 	public void set(String cluster, String key, int seconds, JsonNode value) {
 		MemcachedClient client = getClient(cluster);
 		try {
-			client.set(key, seconds, value, transcoder);
+			client.set(key, seconds, value, transcoder, opTimeout(client));
 		} catch (MemcachedException | InterruptedException e) {
 			throw new TritonMemcachedException(
 					TritonErrors.memcached_error,
@@ -114,9 +121,9 @@ public class TritonMemcachedClient implements TritonCleaner {
 		MemcachedClient client = getClient(cluster);
 		try {
 			if (newSeconds == null) {
-				return client.get(key, transcoder);
+				return client.get(key, opTimeout(client), transcoder);
 			} else {
-				return client.getAndTouch(key, newSeconds);
+				return client.getAndTouch(key, newSeconds, opTimeout(client));
 			}
 		} catch (MemcachedException | InterruptedException e) {
 			throw new TritonMemcachedException(
@@ -138,7 +145,7 @@ public class TritonMemcachedClient implements TritonCleaner {
 	public Map<String, JsonNode> getMulti(String cluster, List<String> keys) {
 		MemcachedClient client = getClient(cluster);
 		try {
-			return client.get(keys, transcoder);
+			return client.get(keys, opTimeout(client), transcoder);
 		} catch (MemcachedException | InterruptedException e) {
 			throw new TritonMemcachedException(
 					TritonErrors.memcached_error,
@@ -158,7 +165,7 @@ public class TritonMemcachedClient implements TritonCleaner {
 	public void delete(String cluster, String key) {
 		MemcachedClient client = getClient(cluster);
 		try {
-			client.delete(key);
+			client.delete(key, opTimeout(client));
 		} catch (MemcachedException | InterruptedException e) {
 			throw new TritonMemcachedException(
 					TritonErrors.memcached_error,
@@ -170,6 +177,15 @@ public class TritonMemcachedClient implements TritonCleaner {
 		}
 	}
 	
+	/**
+	 * Get the operation timeout limited by the deadline of the request
+	 * @param client
+	 * @return
+	 */
+	private long opTimeout(MemcachedClient client) {
+		return TritonDeadline.timeout(client.getOpTimeout(), TimeUnit.MILLISECONDS);
+	}
+	
 	/**
 	 * Create client from {@link TritonMemcachedClusterConfiguration}
 	 * @param config
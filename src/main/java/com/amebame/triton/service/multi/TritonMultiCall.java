@@ -0,0 +1,35 @@
+package com.amebame.triton.service.multi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of triton.multi
+ */
+public class TritonMultiCall {
+	
+	private List<TritonSubCall> calls = new ArrayList<>();
+	
+	// execute calls in order and stop on the first error
+	private boolean stopOnError = false;
+	
+	public TritonMultiCall() {
+	}
+	
+	public List<TritonSubCall> getCalls() {
+		return calls;
+	}
+	
+	public void setCalls(List<TritonSubCall> calls) {
+		this.calls = calls;
+	}
+	
+	public boolean isStopOnError() {
+		return stopOnError;
+	}
+	
+	public void setStopOnError(boolean stopOnError) {
+		this.stopOnError = stopOnError;
+	}
+
+}
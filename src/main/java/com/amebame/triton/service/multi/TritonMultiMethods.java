@@ -0,0 +1,252 @@
+package com.amebame.triton.service.multi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amebame.triton.exception.TritonErrors;
+import com.amebame.triton.server.TritonDeadline;
+import com.amebame.triton.server.TritonMethod;
+import com.amebame.triton.server.TritonReplySink;
+import com.amebame.triton.server.TritonServerContext;
+import com.amebame.triton.server.TritonServerErrors;
+import com.amebame.triton.server.TritonServerExecutor;
+import com.amebame.triton.server.TritonServerMethod;
+import com.amebame.triton.server.TritonServerRequest;
+import com.amebame.triton.server.stats.TritonMethodStats;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * {@link TritonMultiMethods} executes many calls in one request.
+ * Sub calls are dispatched to the worker executor in parallel
+ * and the results are replied in the order of the calls when
+ * all of them are completed.
+ * Deferred and asynchronous methods can be called as the sub call.
+ * Replies of asynchronous methods are captured by the sub request,
+ * and no worker thread waits for them.
+ */
+public class TritonMultiMethods {
+	
+	private static final Logger log = LogManager.getLogger(TritonMultiMethods.class);
+	
+	private TritonServerContext context;
+	
+	@Inject
+	public TritonMultiMethods(TritonServerContext context) {
+		this.context = context;
+	}
+	
+	/**
+	 * Execute sub calls and reply the list of the results.
+	 * If stopOnError is set, sub calls are executed in order
+	 * and calls after the failed one are replied as skipped.
+	 * @param request
+	 * @param multi
+	 * @return
+	 */
+	@TritonMethod("triton.multi")
+	public ListenableFuture<List<TritonSubResult>> multi(TritonServerRequest request, TritonMultiCall multi) {
+		List<TritonSubCall> calls = multi.getCalls();
+		List<ListenableFuture<TritonSubResult>> results = new ArrayList<>(calls.size());
+		if (calls.isEmpty()) {
+			// nothing to execute
+		} else if (multi.isStopOnError()) {
+			results.add(call(request, calls.get(0)));
+			for (int i = 1; i < calls.size(); i++) {
+				results.add(next(request, calls.get(i), results.get(i - 1)));
+			}
+		} else {
+			int last = calls.size() - 1;
+			for (int i = 0; i < last; i++) {
+				results.add(dispatch(request, calls.get(i)));
+			}
+			// last call runs on this thread
+			results.add(call(request, calls.get(last)));
+		}
+		// replied by the handler when all sub calls are completed
+		return Futures.successfulAsList(results);
+	}
+	
+	/**
+	 * Execute the sub call after the previous one has succeeded.
+	 * The call runs on this thread if the previous one has been completed,
+	 * otherwise it is dispatched from the thread which completes it.
+	 * @param request
+	 * @param call
+	 * @param previous
+	 * @return
+	 */
+	private ListenableFuture<TritonSubResult> next(
+			final TritonServerRequest request,
+			final TritonSubCall call,
+			ListenableFuture<TritonSubResult> previous) {
+		final boolean inline = previous.isDone();
+		return Futures.transform(previous, new AsyncFunction<TritonSubResult, TritonSubResult>() {
+			@Override
+			public ListenableFuture<TritonSubResult> apply(TritonSubResult result) {
+				if (result.isFailed()) {
+					return Futures.immediateFuture(TritonSubResult.failure(
+							TritonServerErrors.skipped.code(),
+							"skipped since the previous call failed"));
+				}
+				return inline ? call(request, call) : dispatch(request, call);
+			}
+		});
+	}
+	
+	/**
+	 * Dispatch the sub call to the executor of the method.
+	 * The call runs on this thread if the executor is full.
+	 * @param request
+	 * @param call
+	 * @return
+	 */
+	private ListenableFuture<TritonSubResult> dispatch(TritonServerRequest request, TritonSubCall call) {
+		SubCallTask task = new SubCallTask(request, call);
+		TritonServerExecutor executor = context.getExecutor(call.getName());
+		if (!executor.tryExecute(task)) {
+			task.run();
+		}
+		return Futures.dereference(task.result);
+	}
+	
+	/**
+	 * Execute the sub call
+	 * @param request
+	 * @param call
+	 * @return future of the result which never fails
+	 */
+	private ListenableFuture<TritonSubResult> call(TritonServerRequest request, TritonSubCall call) {
+		TritonServerMethod method = context.getServerMethod(call.getName());
+		if (method == null) {
+			return Futures.immediateFuture(TritonSubResult.failure(
+					TritonErrors.body_format.code(),
+					"method " + call.getName() + " does not exist"));
+		}
+		TritonMethodStats stats = method.getStats();
+		if (request.isExpired()) {
+			stats.error(TritonServerErrors.deadline_exceeded.code());
+			return Futures.immediateFuture(TritonSubResult.failure(
+					TritonServerErrors.deadline_exceeded.code(), "deadline exceeded"));
+		}
+		SubCallReply reply = new SubCallReply(call.getName(), stats);
+		// sub calls may run on other threads
+		Long previous = TritonDeadline.set(request.getDeadline());
+		try {
+			Object body = method.readBody(call.getBody());
+			Object result = method.invoke(request.subRequest(method, body, reply), body);
+			if (method.isDeferred() && result != null) {
+				reply.follow((ListenableFuture<?>) result);
+			} else if (method.isSynchronous()) {
+				reply.reply(result);
+			}
+		} catch (Exception e) {
+			reply.onFailure(e);
+		} finally {
+			TritonDeadline.set(previous);
+		}
+		return reply.result;
+	}
+	
+	/**
+	 * Reply of the sub call which is captured from the sub request
+	 * or from the future of the deferred method
+	 */
+	private static class SubCallReply implements TritonReplySink, FutureCallback<Object> {
+		private String name;
+		private TritonMethodStats stats;
+		private long start;
+		private SettableFuture<TritonSubResult> result;
+		private SubCallReply(String name, TritonMethodStats stats) {
+			this.name = name;
+			this.stats = stats;
+			this.start = System.nanoTime();
+			this.result = SettableFuture.create();
+		}
+		/**
+		 * Complete with the future of the deferred method.
+		 * The future is cancelled if the reply is no longer awaited.
+		 * @param future
+		 */
+		private void follow(final ListenableFuture<?> future) {
+			Futures.addCallback(future, this);
+			result.addListener(new Runnable() {
+				@Override
+				public void run() {
+					if (result.isCancelled()) {
+						future.cancel(true);
+					}
+				}
+			}, MoreExecutors.sameThreadExecutor());
+		}
+		@Override
+		public boolean reply(Object body) {
+			if (!result.set(TritonSubResult.success(body))) {
+				return false;
+			}
+			stats.recordExecute(System.nanoTime() - start);
+			stats.success();
+			return true;
+		}
+		@Override
+		public boolean error(int errorCode, String text) {
+			if (!result.set(TritonSubResult.failure(errorCode, text))) {
+				return false;
+			}
+			stats.recordExecute(System.nanoTime() - start);
+			stats.error(errorCode);
+			return true;
+		}
+		@Override
+		public void onSuccess(Object body) {
+			reply(body);
+		}
+		@Override
+		public void onFailure(Throwable t) {
+			Throwable cause = TritonServerErrors.causeOf(t);
+			log.warn("sub call " + name + " failed", cause);
+			error(TritonServerErrors.codeOf(t), TritonServerErrors.textOf(cause));
+		}
+	}
+	
+	/**
+	 * Task to execute the sub call on the executor
+	 */
+	private class SubCallTask implements Runnable {
+		private TritonServerRequest request;
+		private TritonSubCall call;
+		private SettableFuture<ListenableFuture<TritonSubResult>> result;
+		private SubCallTask(TritonServerRequest request, TritonSubCall call) {
+			this.request = request;
+			this.call = call;
+			this.result = SettableFuture.create();
+		}
+		@Override
+		public void run() {
+			ListenableFuture<TritonSubResult> subResult = null;
+			try {
+				subResult = call(request, call);
+			} finally {
+				complete(subResult);
+			}
+		}
+		private void complete(ListenableFuture<TritonSubResult> subResult) {
+			if (subResult == null) {
+				// the call has thrown the error
+				subResult = Futures.immediateFuture(TritonSubResult.failure(
+						TritonErrors.server_error.code(), "sub call " + call.getName() + " failed"));
+			}
+			result.set(subResult);
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.amebame.triton.service.multi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Sub call of triton.multi which has
+ * the same form as the request envelope.
+ */
+public class TritonSubCall {
+	
+	private String name;
+	
+	private JsonNode body;
+	
+	public TritonSubCall() {
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public JsonNode getBody() {
+		return body;
+	}
+	
+	public void setBody(JsonNode body) {
+		this.body = body;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.amebame.triton.service.multi;
+
+import com.amebame.triton.entity.TritonError;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Result of the sub call. Either result or error is set.
+ */
+@JsonInclude(Include.NON_NULL)
+public class TritonSubResult {
+	
+	private Object result;
+	
+	private TritonError error;
+	
+	public TritonSubResult() {
+	}
+	
+	public Object getResult() {
+		return result;
+	}
+	
+	public void setResult(Object result) {
+		this.result = result;
+	}
+	
+	public TritonError getError() {
+		return error;
+	}
+	
+	public void setError(TritonError error) {
+		this.error = error;
+	}
+	
+	public boolean isFailed() {
+		return error != null;
+	}
+	
+	public static TritonSubResult success(Object result) {
+		TritonSubResult subResult = new TritonSubResult();
+		subResult.setResult(result);
+		return subResult;
+	}
+	
+	public static TritonSubResult failure(int code, String message) {
+		TritonSubResult subResult = new TritonSubResult();
+		subResult.setError(new TritonError(code, message));
+		return subResult;
+	}
+
+}
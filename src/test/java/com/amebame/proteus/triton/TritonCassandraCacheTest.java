@@ -0,0 +1,87 @@
+package com.amebame.proteus.triton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.amebame.triton.config.TritonCassandraCacheConfiguration;
+import com.amebame.triton.service.cassandra.CassandraCache;
+import com.netflix.astyanax.serializers.StringSerializer;
+
+public class TritonCassandraCacheTest {
+	
+	private String key = CassandraCache.keyOf(StringSerializer.get(), "key1");
+
+	public TritonCassandraCacheTest() {
+	}
+	
+	private CassandraCache createCache(TritonCassandraCacheConfiguration config) {
+		return new CassandraCache("test", "triton_test", "test_cache", config);
+	}
+	
+	@Test
+	public void testHitAndMiss() {
+		CassandraCache cache = createCache(new TritonCassandraCacheConfiguration());
+		assertNull(cache.get(key, ""));
+		cache.put(key, "", "value1", 10L, cache.version(key));
+		cache.put(key, "[\"column1\"]", "value2", 10L, cache.version(key));
+		assertEquals("value1", cache.get(key, "").getValue());
+		assertEquals("value2", cache.get(key, "[\"column1\"]").getValue());
+		assertEquals(2L, cache.getHits());
+		assertEquals(1L, cache.getMisses());
+		assertEquals(1, cache.getRows());
+	}
+	
+	@Test
+	public void testInvalidate() {
+		CassandraCache cache = createCache(new TritonCassandraCacheConfiguration());
+		cache.put(key, "", "value1", 10L, cache.version(key));
+		cache.invalidate(key);
+		assertNull(cache.get(key, ""));
+		assertEquals(1L, cache.getInvalidations());
+		// read before the write is not cached
+		long version = cache.version(key);
+		cache.invalidate(key);
+		cache.put(key, "", "stale", 10L, version);
+		assertNull(cache.get(key, ""));
+		cache.put(key, "", "value1", 10L, cache.version(key));
+		cache.invalidateAll();
+		assertNull(cache.get(key, ""));
+	}
+	
+	@Test
+	public void testExpire() throws InterruptedException {
+		TritonCassandraCacheConfiguration config = new TritonCassandraCacheConfiguration();
+		config.setTtl(10L);
+		CassandraCache cache = createCache(config);
+		cache.put(key, "", "value1", 10L, cache.version(key));
+		assertNotNull(cache.get(key, ""));
+		Thread.sleep(20L);
+		assertNull(cache.get(key, ""));
+		assertEquals(1L, cache.getExpirations());
+	}
+	
+	@Test
+	public void testEvict() {
+		TritonCassandraCacheConfiguration config = new TritonCassandraCacheConfiguration();
+		config.setMaxBytes(4096L);
+		config.setMaxSlices(2);
+		CassandraCache cache = createCache(config);
+		// oldest slices are dropped from the row
+		cache.put(key, "1", "value1", 10L, cache.version(key));
+		cache.put(key, "2", "value2", 10L, cache.version(key));
+		cache.put(key, "3", "value3", 10L, cache.version(key));
+		assertNull(cache.get(key, "1"));
+		assertNotNull(cache.get(key, "3"));
+		// rows are evicted by bytes
+		for (int i = 0; i < 10; i++) {
+			String each = CassandraCache.keyOf(StringSerializer.get(), "row" + i);
+			cache.put(each, "", "value", 1024L, cache.version(each));
+		}
+		assertEquals(3, cache.getRows());
+		assertEquals(8L, cache.getEvictions());
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.amebame.proteus.triton;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.junit.Test;
+
+import com.amebame.triton.server.protocol.TritonCompression;
+import com.amebame.triton.server.protocol.TritonFrame;
+
+public class TritonCompressionTest {
+	
+	private static final int MAX_SIZE = 1024 * 1024;
+
+	public TritonCompressionTest() {
+	}
+	
+	@Test
+	public void testRoundTrip() {
+		byte[] body = body(10000);
+		ChannelBuffer compressed = compressedBody(body);
+		ChannelBuffer decompressed = TritonCompression.decompress(compressed, MAX_SIZE);
+		byte[] result = new byte[decompressed.readableBytes()];
+		decompressed.readBytes(result);
+		assertArrayEquals(body, result);
+	}
+	
+	@Test(expected=CorruptedFrameException.class)
+	public void testTruncatedBlock() {
+		ChannelBuffer compressed = compressedBody(body(10000));
+		TritonCompression.decompress(compressed.slice(0, compressed.readableBytes() - 8), MAX_SIZE);
+	}
+	
+	@Test(expected=CorruptedFrameException.class)
+	public void testPaddedBlock() {
+		ChannelBuffer compressed = compressedBody(body(10000));
+		ChannelBuffer padded = ChannelBuffers.wrappedBuffer(compressed, ChannelBuffers.wrappedBuffer(new byte[8]));
+		TritonCompression.decompress(padded, MAX_SIZE);
+	}
+	
+	@Test(expected=CorruptedFrameException.class)
+	public void testSizeOverLimit() {
+		ChannelBuffer compressed = compressedBody(body(10000));
+		TritonCompression.decompress(compressed, 9999);
+	}
+	
+	@Test(expected=CorruptedFrameException.class)
+	public void testSizeOverRatio() {
+		// 16 bytes of the block cannot expand to 256MB
+		ChannelBuffer compressed = ChannelBuffers.buffer(20);
+		compressed.writeInt(256 * 1024 * 1024);
+		compressed.writeZero(16);
+		TritonCompression.decompress(compressed, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Compressible body
+	 * @param size
+	 * @return
+	 */
+	private static byte[] body(int size) {
+		byte[] body = new byte[size];
+		Arrays.fill(body, (byte) 'a');
+		for (int i = 0; i < size; i += 7) {
+			body[i] = (byte) ('0' + i % 10);
+		}
+		return body;
+	}
+	
+	/**
+	 * Compress the body in the frame and return the compressed body
+	 * @param body
+	 * @return
+	 */
+	private static ChannelBuffer compressedBody(byte[] body) {
+		ChannelBuffer frame = ChannelBuffers.buffer(TritonFrame.HEADER_SIZE + body.length);
+		frame.writeShort(TritonFrame.COMMAND);
+		frame.writeInt(body.length);
+		frame.writeInt(1);
+		frame.writeZero(TritonFrame.RESERVED_SIZE);
+		frame.writeBytes(body);
+		ChannelBuffer compressed = TritonCompression.compress(frame, HeapChannelBufferFactory.getInstance());
+		assertNotNull(compressed);
+		return compressed.slice(TritonFrame.HEADER_SIZE, compressed.readableBytes() - TritonFrame.HEADER_SIZE);
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.amebame.proteus.triton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.amebame.triton.server.stats.TritonHistogram;
+import com.amebame.triton.server.stats.TritonHistogramSnapshot;
+
+public class TritonHistogramTest {
+
+	public TritonHistogramTest() {
+	}
+
+	@Test
+	public void testEmpty() {
+		TritonHistogram histogram = new TritonHistogram();
+		TritonHistogramSnapshot snapshot = histogram.snapshot(1L);
+		assertEquals(0L, snapshot.getCount());
+		assertEquals(0L, snapshot.getP99());
+	}
+
+	@Test
+	public void testPercentiles() {
+		TritonHistogram histogram = new TritonHistogram();
+		for (long i = 1; i <= 10000; i++) {
+			histogram.record(i);
+		}
+		TritonHistogramSnapshot snapshot = histogram.snapshot(1L);
+		assertEquals(10000L, snapshot.getCount());
+		assertEquals(10000L, snapshot.getMax());
+		assertEquals(5000L, snapshot.getMean());
+		assertWithin(5000L, snapshot.getP50());
+		assertWithin(9000L, snapshot.getP90());
+		assertWithin(9900L, snapshot.getP99());
+	}
+
+	@Test
+	public void testSmallValues() {
+		TritonHistogram histogram = new TritonHistogram();
+		for (long i = 0; i < 16; i++) {
+			histogram.record(i);
+		}
+		// small values are recorded exactly
+		assertEquals(7L, histogram.snapshot(1L).getP50());
+	}
+
+	@Test
+	public void testRecordCorrected() {
+		TritonHistogram histogram = new TritonHistogram();
+		// stalled for 1000 while requests are expected every 100
+		histogram.recordCorrected(1000L, 100L);
+		TritonHistogramSnapshot snapshot = histogram.snapshot(1L);
+		assertEquals(10L, snapshot.getCount());
+		assertEquals(1000L, snapshot.getMax());
+		assertEquals(550L, snapshot.getMean());
+		// no correction under the interval
+		histogram.reset();
+		histogram.recordCorrected(50L, 100L);
+		assertEquals(1L, histogram.snapshot(1L).getCount());
+	}
+
+	@Test
+	public void testReset() {
+		TritonHistogram histogram = new TritonHistogram();
+		histogram.record(100L);
+		histogram.reset();
+		assertEquals(0L, histogram.snapshot(1L).getCount());
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		// 12.5% error of the bucket
+		assertTrue(actual + " is not near " + expected, actual >= expected && actual <= expected * 1125 / 1000);
+	}
+
+}
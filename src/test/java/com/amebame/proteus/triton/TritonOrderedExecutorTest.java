@@ -0,0 +1,225 @@
+package com.amebame.proteus.triton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.channel.Channel;
+import org.junit.After;
+import org.junit.Test;
+
+import com.amebame.triton.config.TritonExecutorConfiguration;
+import com.amebame.triton.server.TritonOrderedExecutor;
+import com.amebame.triton.server.TritonServerExecutor;
+import com.amebame.triton.service.TritonScheduler;
+
+public class TritonOrderedExecutorTest {
+	
+	private TritonServerExecutor executor;
+
+	public TritonOrderedExecutorTest() {
+	}
+	
+	@After
+	public void tearDown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testChannelOrder() throws Exception {
+		TritonExecutorConfiguration config = config(4, 10000);
+		config.setLaneCapacity(10000);
+		TritonOrderedExecutor ordered = ordered(config);
+		int channels = 4;
+		int tasks = 2000;
+		CountDownLatch done = new CountDownLatch(channels * tasks);
+		List<List<Integer>> results = new ArrayList<>();
+		for (int c = 0; c < channels; c++) {
+			results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+		}
+		for (int i = 0; i < tasks; i++) {
+			for (int c = 0; c < channels; c++) {
+				assertTrue(ordered.execute(channel(c), new Record(results.get(c), i, done)));
+			}
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (List<Integer> result : results) {
+			assertEquals(tasks, result.size());
+			for (int i = 0; i < tasks; i++) {
+				assertEquals(i, result.get(i).intValue());
+			}
+		}
+	}
+	
+	@Test
+	public void testLaneCapacity() throws Exception {
+		TritonExecutorConfiguration config = config(2, 100);
+		config.setLaneCapacity(2);
+		TritonOrderedExecutor ordered = ordered(config);
+		Channel channel = channel(1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(3);
+		List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+		assertTrue(ordered.execute(channel, new Block(started, release, done)));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		// the running task is not counted as pending
+		assertTrue(ordered.execute(channel, new Record(result, 1, done)));
+		assertTrue(ordered.execute(channel, new Record(result, 2, done)));
+		assertFalse(ordered.execute(channel, new Record(result, 3, done)));
+		// other channels are not limited
+		CountDownLatch other = new CountDownLatch(1);
+		assertTrue(ordered.execute(channel(2), new Record(new ArrayList<Integer>(), 1, other)));
+		assertTrue(other.await(5, TimeUnit.SECONDS));
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList(1, 2), result);
+		assertEquals(1L, executor.getRejectedCount());
+	}
+	
+	@Test
+	public void testExecutorFull() throws Exception {
+		TritonExecutorConfiguration config = config(2, 1);
+		config.setLaneBatch(1);
+		TritonOrderedExecutor ordered = ordered(config);
+		List<String> result = Collections.synchronizedList(new ArrayList<String>());
+		CountDownLatch done = new CountDownLatch(4);
+		// lane a runs a1 on the first thread and keeps a2 pending
+		CountDownLatch startedA = new CountDownLatch(1);
+		CountDownLatch releaseA = new CountDownLatch(1);
+		assertTrue(ordered.execute(channel(1), new Block(startedA, releaseA, done)));
+		assertTrue(startedA.await(5, TimeUnit.SECONDS));
+		assertTrue(ordered.execute(channel(1), new Label(result, "a2", done)));
+		// lane b holds the second thread
+		CountDownLatch startedB = new CountDownLatch(1);
+		CountDownLatch releaseB = new CountDownLatch(1);
+		assertTrue(ordered.execute(channel(2), new Block(startedB, releaseB, done)));
+		assertTrue(startedB.await(5, TimeUnit.SECONDS));
+		// lane c fills the queue
+		assertTrue(ordered.execute(channel(3), new Label(result, "c1", done)));
+		// new lanes are rejected while the executor is full
+		assertFalse(ordered.execute(channel(4), new Label(result, "d1", done)));
+		// a2 waits for the executor instead of running on the thread of a1
+		releaseA.countDown();
+		assertTrue(awaitSize(result, 2));
+		assertEquals(Arrays.asList("c1", "a2"), result);
+		releaseB.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+	
+	private TritonOrderedExecutor ordered(TritonExecutorConfiguration config) {
+		executor = new TritonServerExecutor("test", config);
+		return new TritonOrderedExecutor(executor, config, new TritonScheduler());
+	}
+	
+	private static TritonExecutorConfiguration config(int threads, int queue) {
+		TritonExecutorConfiguration config = new TritonExecutorConfiguration(threads, threads);
+		config.setQueue(queue);
+		config.setOrdered(true);
+		return config;
+	}
+	
+	private static boolean awaitSize(List<?> list, int size) throws InterruptedException {
+		long limit = System.currentTimeMillis() + 5000L;
+		while (list.size() < size) {
+			if (System.currentTimeMillis() > limit) {
+				return false;
+			}
+			Thread.sleep(1L);
+		}
+		return true;
+	}
+	
+	/**
+	 * Stub channel which has only the id
+	 * @param id
+	 * @return
+	 */
+	private static Channel channel(final int id) {
+		return (Channel) Proxy.newProxyInstance(
+				Channel.class.getClassLoader(),
+				new Class<?>[] { Channel.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						switch (method.getName()) {
+						case "getId":
+						case "hashCode":
+							return id;
+						case "equals":
+							return proxy == args[0];
+						case "toString":
+							return "channel-" + id;
+						default:
+							throw new UnsupportedOperationException(method.getName());
+						}
+					}
+				});
+	}
+	
+	private static class Record implements Runnable {
+		private List<Integer> result;
+		private int value;
+		private CountDownLatch done;
+		private Record(List<Integer> result, int value, CountDownLatch done) {
+			this.result = result;
+			this.value = value;
+			this.done = done;
+		}
+		@Override
+		public void run() {
+			result.add(value);
+			done.countDown();
+		}
+	}
+	
+	private static class Label implements Runnable {
+		private List<String> result;
+		private String label;
+		private CountDownLatch done;
+		private Label(List<String> result, String label, CountDownLatch done) {
+			this.result = result;
+			this.label = label;
+			this.done = done;
+		}
+		@Override
+		public void run() {
+			result.add(label);
+			done.countDown();
+		}
+	}
+	
+	private static class Block implements Runnable {
+		private CountDownLatch started;
+		private CountDownLatch release;
+		private CountDownLatch done;
+		private Block(CountDownLatch started, CountDownLatch release, CountDownLatch done) {
+			this.started = started;
+			this.release = release;
+			this.done = done;
+		}
+		@Override
+		public void run() {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			done.countDown();
+		}
+	}
+
+}
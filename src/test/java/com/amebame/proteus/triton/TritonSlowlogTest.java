@@ -0,0 +1,56 @@
+package com.amebame.proteus.triton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.amebame.triton.config.TritonServerConfiguration;
+import com.amebame.triton.server.stats.TritonSlowRequest;
+import com.amebame.triton.server.stats.TritonSlowlog;
+
+public class TritonSlowlogTest {
+
+	public TritonSlowlogTest() {
+	}
+
+	@Test
+	public void testThreshold() {
+		TritonServerConfiguration config = new TritonServerConfiguration();
+		config.getSlowlog().setThreshold(100L);
+		TritonSlowlog slowlog = new TritonSlowlog(config);
+		assertFalse(slowlog.isSlow(TimeUnit.MILLISECONDS.toNanos(99L)));
+		assertTrue(slowlog.isSlow(TimeUnit.MILLISECONDS.toNanos(100L)));
+		config.getSlowlog().setThreshold(0L);
+		slowlog = new TritonSlowlog(config);
+		assertFalse(slowlog.isSlow(Long.MAX_VALUE));
+		assertFalse(slowlog.sample());
+	}
+
+	@Test
+	public void testRing() {
+		TritonServerConfiguration config = new TritonServerConfiguration();
+		config.getSlowlog().setSize(4);
+		TritonSlowlog slowlog = new TritonSlowlog(config);
+		assertTrue(slowlog.get(10).isEmpty());
+		for (int i = 0; i < 6; i++) {
+			TritonSlowRequest entry = new TritonSlowRequest();
+			entry.setMethod("test.method" + i);
+			slowlog.add(entry);
+		}
+		// only the last 4 are kept from the latest
+		List<TritonSlowRequest> list = slowlog.get(10);
+		assertEquals(4, list.size());
+		assertEquals(5L, list.get(0).getId());
+		assertEquals("test.method5", list.get(0).getMethod());
+		assertEquals(2L, list.get(3).getId());
+		assertEquals(2, slowlog.get(2).size());
+		slowlog.reset();
+		assertTrue(slowlog.get(10).isEmpty());
+	}
+
+}